@@ -0,0 +1,89 @@
+package desempenho;
+
+import dominio.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de venda: iniciar, adicionar itens e finalizar, além de
+ * Venda.calcularTotal com diferentes quantidades de itens e do
+ * processamento em lote (SistemaVendas.processarLote).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkCheckout {
+    @Param({ "1", "10", "100", "1000" })
+    public int itensPorVenda;
+
+    private SistemaVendas sistema;
+    private GeradorDados gerador;
+    private String[] clientes;
+    private Venda vendaPronta;
+    private Venda vendaAberta;
+    private int quantidadeProdutos = 10_000;
+    private List<PedidoVenda> lote;
+    private static final int PEDIDOS_POR_LOTE = 100;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        gerador = new GeradorDados();
+        sistema = gerador.sistema(quantidadeProdutos, 1_000, 0, 1);
+        List<Cliente> lista = sistema.listarClientes();
+        clientes = new String[lista.size()];
+        for (int i = 0; i < clientes.length; i++) {
+            clientes[i] = lista.get(i).getIdentificador();
+        }
+        vendaPronta = sistema.iniciarNovaVenda(clientes[0]);
+        for (int i = 0; i < itensPorVenda; i++) {
+            sistema.adicionarItemAVenda(vendaPronta.getCodigo(), 1 + gerador.proximoInt(quantidadeProdutos), 2);
+        }
+        lote = new ArrayList<>(PEDIDOS_POR_LOTE);
+        for (int p = 0; p < PEDIDOS_POR_LOTE; p++) {
+            PedidoVenda pedido = new PedidoVenda(clientes[gerador.proximoInt(clientes.length)]);
+            for (int i = 0; i < itensPorVenda; i++) {
+                pedido.adicionarItem(1 + gerador.proximoInt(quantidadeProdutos), 1);
+            }
+            lote.add(pedido);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void novaVendaAberta() {
+        vendaAberta = sistema.iniciarNovaVenda(clientes[gerador.proximoInt(clientes.length)]);
+    }
+
+    /** Venda completa com itensPorVenda itens. */
+    @Benchmark
+    public boolean vendaCompleta() throws SaldoInsuficienteException {
+        Venda venda = sistema.iniciarNovaVenda(clientes[gerador.proximoInt(clientes.length)]);
+        int codigo = venda.getCodigo();
+        for (int i = 0; i < itensPorVenda; i++) {
+            sistema.adicionarItemAVenda(codigo, 1 + gerador.proximoInt(quantidadeProdutos), 1);
+        }
+        return sistema.finalizarVenda(codigo);
+    }
+
+    /** Um item adicionado a uma venda aberta (inclui a busca da venda e do produto). */
+    @Benchmark
+    public boolean adicionarItemAVenda() {
+        return sistema.adicionarItemAVenda(vendaAberta.getCodigo(), 1 + gerador.proximoInt(quantidadeProdutos), 1);
+    }
+
+    /** Lote de 100 pedidos com itensPorVenda itens (comparar com 100 x vendaCompleta). */
+    @Benchmark
+    public List<ResultadoPedido> loteDeVendas() {
+        return sistema.processarLote(lote);
+    }
+
+    @Benchmark
+    public double calcularTotal() {
+        return vendaPronta.calcularTotal();
+    }
+}
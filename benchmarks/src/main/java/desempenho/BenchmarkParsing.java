@@ -0,0 +1,123 @@
+package desempenho;
+
+import dominio.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de linhas de texto em objetos: fromString (uma linha String por
+ * vez) e {@link LeitorRegistro} reaproveitado sobre os bytes do arquivo,
+ * como no carregamento.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkParsing {
+    private static final int LINHAS = 1024;
+
+    private String[] linhasProduto;
+    private String[] linhasPF;
+    private String[] linhasPJ;
+    private ByteBuffer bytesProduto;
+    private ByteBuffer bytesPF;
+    private ByteBuffer bytesPJ;
+    private int[] iniciosProduto;
+    private int[] iniciosPF;
+    private int[] iniciosPJ;
+    private LeitorRegistro leitor;
+    private int posicao;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        GeradorDados gerador = new GeradorDados();
+        List<Produto> produtos = gerador.produtos(LINHAS);
+        linhasProduto = new String[LINHAS];
+        for (int i = 0; i < LINHAS; i++) {
+            linhasProduto[i] = produtos.get(i).toLineString();
+        }
+        linhasPF = new String[LINHAS];
+        linhasPJ = new String[LINHAS];
+        for (int i = 0; i < LINHAS; i++) {
+            Conta conta = new Conta(i);
+            conta.depositar(123_456 + i);
+            // Sem o prefixo "PF;"/"PJ;", como SistemaVendas.carregarDados repassa
+            linhasPF[i] = new ClientePF("Cliente " + i, "c" + i + "@mail.com", conta, GeradorDados.cpf(i))
+                    .toLineString().substring(3);
+            linhasPJ[i] = new ClientePJ("Empresa " + i, "e" + i + "@mail.com", conta, GeradorDados.cnpj(i),
+                    "Razão " + i).toLineString().substring(3);
+        }
+        iniciosProduto = new int[LINHAS + 1];
+        iniciosPF = new int[LINHAS + 1];
+        iniciosPJ = new int[LINHAS + 1];
+        bytesProduto = arquivo(linhasProduto, "", iniciosProduto);
+        bytesPF = arquivo(linhasPF, "PF;", iniciosPF);
+        bytesPJ = arquivo(linhasPJ, "PJ;", iniciosPJ);
+        leitor = new LeitorRegistro();
+    }
+
+    /**
+     * Junta as linhas num buffer, como um arquivo lido, guardando o início de cada uma.
+     */
+    private static ByteBuffer arquivo(String[] linhas, String prefixo, int[] inicios) {
+        StringBuilder sb = new StringBuilder();
+        for (String linha : linhas) {
+            sb.append(prefixo).append(linha).append('\n');
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        int linha = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                inicios[++linha] = i + 1;
+            }
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private int proxima() {
+        posicao = (posicao + 1) & (LINHAS - 1);
+        return posicao;
+    }
+
+    @Benchmark
+    public Produto produtoFromString() {
+        return Produto.fromString(linhasProduto[proxima()]);
+    }
+
+    @Benchmark
+    public ClientePF clientePFFromString() {
+        return ClientePF.fromString(linhasPF[proxima()]);
+    }
+
+    @Benchmark
+    public ClientePJ clientePJFromString() {
+        return ClientePJ.fromString(linhasPJ[proxima()]);
+    }
+
+    @Benchmark
+    public Produto produtoLeitor() {
+        int i = proxima();
+        leitor.separarLinha(bytesProduto, iniciosProduto[i], iniciosProduto[i + 1]);
+        return leitor.produto(0);
+    }
+
+    @Benchmark
+    public Cliente clientePFLeitor() {
+        int i = proxima();
+        leitor.separarLinha(bytesPF, iniciosPF[i], iniciosPF[i + 1]);
+        return leitor.cliente();
+    }
+
+    @Benchmark
+    public Cliente clientePJLeitor() {
+        int i = proxima();
+        leitor.separarLinha(bytesPJ, iniciosPJ[i], iniciosPJ[i + 1]);
+        return leitor.cliente();
+    }
+}
@@ -0,0 +1,107 @@
+package desempenho;
+
+import dominio.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relatórios de RelatorioVendas sobre 10 mil, 100 mil e 1 milhão de vendas.
+ * "sistema" usa os agregados mantidos pelo SistemaVendas; "reconstruir" mede
+ * o construtor que recebe a lista de vendas e recalcula tudo (sequencial ou
+ * em paralelo).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx8g" })
+@State(Scope.Benchmark)
+public class BenchmarkRelatorios {
+    @Param({ "10000", "100000", "1000000" })
+    public int quantidadeVendas;
+
+    private SistemaVendas sistema;
+    private List<Venda> vendas;
+    private List<Cliente> clientes;
+    private List<Produto> produtos;
+    private String clienteConsultado;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        sistema = new GeradorDados().sistema(50_000, 20_000, quantidadeVendas, 5);
+        vendas = sistema.listarVendasFinalizadas();
+        clientes = sistema.listarClientes();
+        produtos = sistema.listarProdutos();
+        clienteConsultado = vendas.get(0).getCliente().getIdentificador();
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object produtosVendidos() {
+        return sistema.gerarRelatorio().relatorioProdurosVendidos();
+    }
+
+    @Benchmark
+    public Object comprasCliente() {
+        return sistema.gerarRelatorio().relatorioComprasCliente(clienteConsultado);
+    }
+
+    @Benchmark
+    public Object clientesMaisCompram() {
+        return sistema.gerarRelatorio().relatorioClientesMaisCompram();
+    }
+
+    @Benchmark
+    public Object clientesMovimentacao() {
+        return sistema.gerarRelatorio().relatorioClientesMovimentacao();
+    }
+
+    @Benchmark
+    public Object resumo() {
+        return sistema.gerarRelatorio().gerarResumo();
+    }
+
+    @Benchmark
+    public Object produtosNaoVendidos() {
+        return sistema.gerarRelatorio().relatorioProdurosNaoVendidos();
+    }
+
+    /** Produtos por período: partições do dia + soma direto nas colunas de itens. */
+    @Benchmark
+    public Object produtosVendidosNoPeriodo() {
+        LocalDate hoje = LocalDate.now();
+        return sistema.gerarRelatorio().relatorioProdutosVendidosNoPeriodo(hoje, hoje);
+    }
+
+    /** Todos os relatórios a partir da lista de vendas (varredura completa). */
+    @Benchmark
+    public void reconstruirTodos(Blackhole bh) {
+        todos(bh, new RelatorioVendas(vendas, clientes, produtos));
+    }
+
+    /** Igual a reconstruirTodos, no modo paralelo (fork-join com todos os núcleos). */
+    @Benchmark
+    public void reconstruirTodosParalelo(Blackhole bh) {
+        todos(bh, new RelatorioVendas(vendas, clientes, produtos, pool));
+    }
+
+    private void todos(Blackhole bh, RelatorioVendas relatorio) {
+        bh.consume(relatorio.relatorioProdurosVendidos());
+        bh.consume(relatorio.relatorioComprasCliente(clienteConsultado));
+        bh.consume(relatorio.relatorioClientesMaisCompram());
+        bh.consume(relatorio.relatorioClientesMovimentacao());
+        bh.consume(relatorio.gerarResumo());
+        bh.consume(relatorio.relatorioProdurosNaoVendidos());
+    }
+}
@@ -0,0 +1,84 @@
+package desempenho;
+
+import dominio.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Gravação e carga dos arquivos de clientes e produtos, em texto e binário.
+ * Os arquivos ficam em um diretório temporário apagado ao final.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx8g" })
+@State(Scope.Benchmark)
+public class BenchmarkRepositorio {
+    @Param({ "10000", "100000", "1000000" })
+    public int quantidade;
+
+    private Path diretorio;
+    private String arquivoClientes;
+    private String arquivoProdutos;
+    private SistemaVendas sistema;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        diretorio = Files.createTempDirectory("bench-repositorio");
+        arquivoClientes = diretorio.resolve("clientes.txt").toString();
+        arquivoProdutos = diretorio.resolve("produtos.txt").toString();
+        GeradorDados gerador = new GeradorDados();
+        sistema = new SistemaVendas(arquivoClientes, arquivoProdutos, null);
+        for (Produto p : gerador.produtos(quantidade)) {
+            sistema.cadastrarProduto(p);
+        }
+        for (Cliente c : gerador.clientes(quantidade / 10)) {
+            sistema.cadastrarCliente(c);
+        }
+        sistema.salvarDados();
+        sistema.setSnapshotBinario(true);
+        sistema.salvarDados();
+        sistema.setSnapshotBinario(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void salvarTexto() {
+        sistema.salvarDados();
+    }
+
+    @Benchmark
+    public SistemaVendas carregarTexto() {
+        SistemaVendas novo = new SistemaVendas(arquivoClientes, arquivoProdutos, null);
+        novo.carregarDados();
+        return novo;
+    }
+
+    @Benchmark
+    public void salvarBinario() {
+        sistema.setSnapshotBinario(true);
+        sistema.salvarDados();
+        sistema.setSnapshotBinario(false);
+    }
+
+    @Benchmark
+    public SistemaVendas carregarBinario() {
+        SistemaVendas novo = new SistemaVendas(arquivoClientes, arquivoProdutos, null);
+        novo.setSnapshotBinario(true);
+        novo.carregarDados();
+        return novo;
+    }
+}
@@ -0,0 +1,107 @@
+package desempenho;
+
+import dominio.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera catálogos, clientes e vendas sintéticos para os benchmarks.
+ * Usa semente fixa para que execuções diferentes vejam os mesmos dados.
+ */
+public class GeradorDados {
+    private static final String[] NOMES_PRODUTO = { "Camiseta", "Mouse", "Teclado", "Chuteira", "Caderno",
+            "Fone", "Monitor", "Curso Online", "E-book", "Licença" };
+    private static final String[] NOMES_CLIENTE = { "Ana", "Bruno", "Carla", "Diego", "Elisa", "Fábio",
+            "Gabriel", "Helena", "Igor", "Júlia" };
+
+    private Random random;
+
+    public GeradorDados() {
+        this(42L);
+    }
+
+    public GeradorDados(long semente) {
+        this.random = new Random(semente);
+    }
+
+    /**
+     * Produtos com códigos 1..quantidade, preços entre R$ 1,00 e R$ 1000,00.
+     */
+    public List<Produto> produtos(int quantidade) {
+        List<Produto> produtos = new ArrayList<>(quantidade);
+        TipoProduto[] tipos = TipoProduto.values();
+        for (int i = 1; i <= quantidade; i++) {
+            String nome = NOMES_PRODUTO[random.nextInt(NOMES_PRODUTO.length)] + " " + i;
+            long preco = 100 + random.nextInt(99_901);
+            produtos.add(new Produto(i, nome, preco, tipos[random.nextInt(tipos.length)]));
+        }
+        return produtos;
+    }
+
+    /**
+     * Clientes (cerca de 80% PF e 20% PJ) com saldo alto o bastante para
+     * não falharem nas vendas geradas.
+     */
+    public List<Cliente> clientes(int quantidade) {
+        List<Cliente> clientes = new ArrayList<>(quantidade);
+        for (int i = 1; i <= quantidade; i++) {
+            String nome = NOMES_CLIENTE[random.nextInt(NOMES_CLIENTE.length)] + " " + i;
+            Conta conta = new Conta(i);
+            conta.depositar(100_000_000_000L);
+            if (random.nextInt(5) == 0) {
+                clientes.add(new ClientePJ(nome, "contato" + i + "@empresa.com", conta, cnpj(i),
+                        "Empresa " + i + " Ltda"));
+            } else {
+                clientes.add(new ClientePF(nome, "cliente" + i + "@mail.com", conta, cpf(i)));
+            }
+        }
+        return clientes;
+    }
+
+    /**
+     * Cria um SistemaVendas sem diário (nada é gravado em disco) com o catálogo,
+     * os clientes e a quantidade pedida de vendas finalizadas.
+     *
+     * @param maxItensPorVenda cada venda recebe de 1 a este número de itens
+     */
+    public SistemaVendas sistema(int quantidadeProdutos, int quantidadeClientes, int quantidadeVendas,
+            int maxItensPorVenda) {
+        SistemaVendas sistema = new SistemaVendas("clientes-bench.txt", "produtos-bench.txt", null);
+        for (Produto p : produtos(quantidadeProdutos)) {
+            sistema.cadastrarProduto(p);
+        }
+        List<Cliente> clientes = clientes(quantidadeClientes);
+        for (Cliente c : clientes) {
+            sistema.cadastrarCliente(c);
+        }
+        for (int i = 0; i < quantidadeVendas; i++) {
+            Cliente cliente = clientes.get(random.nextInt(clientes.size()));
+            Venda venda = sistema.iniciarNovaVenda(cliente.getIdentificador());
+            int itens = 1 + random.nextInt(maxItensPorVenda);
+            for (int j = 0; j < itens; j++) {
+                sistema.adicionarItemAVenda(venda.getCodigo(), 1 + random.nextInt(quantidadeProdutos),
+                        1 + random.nextInt(5));
+            }
+            try {
+                sistema.finalizarVenda(venda.getCodigo());
+            } catch (SaldoInsuficienteException e) {
+                throw new IllegalStateException("Saldo sintético insuficiente", e);
+            }
+        }
+        return sistema;
+    }
+
+    public int proximoInt(int limite) {
+        return random.nextInt(limite);
+    }
+
+    public static String cpf(int i) {
+        return String.format("%011d", i);
+    }
+
+    public static String cnpj(int i) {
+        return String.format("%014d", i);
+    }
+}
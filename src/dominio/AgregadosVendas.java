@@ -0,0 +1,364 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Totais de vendas mantidos incrementalmente: por produto, por cliente e
+ * globais. O {@link SistemaVendas} registra cada venda finalizada aqui e os
+ * relatórios leem os contadores prontos, sem percorrer todas as vendas.
+ */
+public class AgregadosVendas {
+    /** Vendas por tarefa na montagem paralela. */
+    public static final int BLOCO_PARALELO = 8192;
+
+    private ConcurrentHashMap<Integer, ContadorProduto> porProduto;
+    private ConcurrentHashMap<String, ContadorCliente> porCliente;
+    /** Soma das vendas em centavos. */
+    private LongAdder valorTotal;
+    private LongAdder quantidadeVendas;
+    /** Ordem de primeira aparição, usada para desempatar os rankings. */
+    private AtomicLong sequencia;
+
+    public AgregadosVendas() {
+        this.porProduto = new ConcurrentHashMap<>();
+        this.porCliente = new ConcurrentHashMap<>();
+        this.valorTotal = new LongAdder();
+        this.quantidadeVendas = new LongAdder();
+        this.sequencia = new AtomicLong();
+    }
+
+    /**
+     * Monta os agregados a partir de uma lista de vendas (uma única passada).
+     */
+    public static AgregadosVendas de(Collection<Venda> vendas) {
+        AgregadosVendas agregados = new AgregadosVendas();
+        for (Venda venda : vendas) {
+            agregados.registrar(venda);
+        }
+        return agregados;
+    }
+
+    /**
+     * Monta os agregados dividindo a lista em blocos somados em paralelo no
+     * {@code pool}. Cada bloco gera totais parciais próprios (sem travas), que
+     * são unidos na ordem dos blocos: o resultado, inclusive a ordem de
+     * desempate e a ordem das vendas de cada cliente, é igual ao de {@link #de}.
+     */
+    public static AgregadosVendas de(List<Venda> vendas, ForkJoinPool pool) {
+        if (pool == null || vendas.size() < 2 * BLOCO_PARALELO) {
+            return de(vendas);
+        }
+        Parcial total = pool.invoke(new TarefaParcial(vendas, 0, vendas.size()));
+        AgregadosVendas agregados = new AgregadosVendas();
+        for (Object primeiro : total.ordem) {
+            long ordem = agregados.sequencia.getAndIncrement();
+            if (primeiro instanceof ParcialProduto) {
+                ParcialProduto p = (ParcialProduto) primeiro;
+                ContadorProduto contador = new ContadorProduto(p.produto, ordem);
+                contador.adicionar(p.quantidade, p.valor);
+                agregados.porProduto.put(p.produto.getCodigo(), contador);
+            } else {
+                ParcialCliente c = (ParcialCliente) primeiro;
+                ContadorCliente contador = new ContadorCliente(c.cliente, ordem);
+                contador.gasto = c.gasto;
+                contador.vendas = c.vendas;
+                agregados.porCliente.put(c.cliente.getIdentificador(), contador);
+            }
+        }
+        agregados.valorTotal.add(total.valorTotal);
+        agregados.quantidadeVendas.add(total.quantidadeVendas);
+        return agregados;
+    }
+
+    /**
+     * Soma a venda aos contadores. Deve ser chamado uma vez por venda.
+     */
+    public void registrar(Venda venda) {
+        long total = 0;
+        for (ItemVenda item : venda.getItens()) {
+            Produto p = item.getProduto();
+            long subtotal = item.calcularSubtotal();
+            total += subtotal;
+            porProduto.computeIfAbsent(p.getCodigo(), k -> new ContadorProduto(p, sequencia.getAndIncrement()))
+                    .adicionar(item.getQuantidade(), subtotal);
+        }
+        Cliente cliente = venda.getCliente();
+        porCliente.computeIfAbsent(cliente.getIdentificador(),
+                k -> new ContadorCliente(cliente, sequencia.getAndIncrement()))
+                .adicionar(venda, total);
+        valorTotal.add(total);
+        quantidadeVendas.increment();
+    }
+
+    public Collection<ContadorProduto> getProdutos() {
+        return porProduto.values();
+    }
+
+    public Collection<ContadorCliente> getClientes() {
+        return porCliente.values();
+    }
+
+    /**
+     * Contador do cliente, ou null se ele não tiver vendas registradas.
+     */
+    public ContadorCliente getCliente(String identificador) {
+        return porCliente.get(identificador);
+    }
+
+    public boolean produtoVendido(int codigo) {
+        return porProduto.containsKey(codigo);
+    }
+
+    /**
+     * Soma de todas as vendas registradas, em centavos.
+     */
+    public long getValorTotal() {
+        return valorTotal.sum();
+    }
+
+    public int getQuantidadeVendas() {
+        return quantidadeVendas.intValue();
+    }
+
+    // ========== MONTAGEM PARALELA ==========
+
+    /**
+     * Soma um intervalo da lista; divide ao meio até chegar a um bloco.
+     */
+    private static class TarefaParcial extends RecursiveTask<Parcial> {
+        private List<Venda> vendas;
+        private int inicio;
+        private int fim;
+
+        TarefaParcial(List<Venda> vendas, int inicio, int fim) {
+            this.vendas = vendas;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if (fim - inicio <= BLOCO_PARALELO) {
+                Parcial parcial = new Parcial();
+                for (int i = inicio; i < fim; i++) {
+                    parcial.registrar(vendas.get(i));
+                }
+                return parcial;
+            }
+            int meio = (inicio + fim) >>> 1;
+            TarefaParcial direita = new TarefaParcial(vendas, meio, fim);
+            direita.fork();
+            Parcial esquerda = new TarefaParcial(vendas, inicio, meio).compute();
+            return esquerda.unir(direita.join());
+        }
+    }
+
+    /**
+     * Totais de um bloco de vendas, sem sincronização. {@code ordem} guarda
+     * produtos e clientes na ordem em que apareceram pela primeira vez no
+     * bloco, como a {@code sequencia} faria na soma sequencial.
+     */
+    private static class Parcial {
+        private Map<Integer, ParcialProduto> produtos = new HashMap<>();
+        private Map<String, ParcialCliente> clientes = new HashMap<>();
+        private List<Object> ordem = new ArrayList<>();
+        private long valorTotal;
+        private int quantidadeVendas;
+
+        void registrar(Venda venda) {
+            long total = 0;
+            for (ItemVenda item : venda.getItens()) {
+                Produto p = item.getProduto();
+                long subtotal = item.calcularSubtotal();
+                total += subtotal;
+                ParcialProduto produto = produtos.get(p.getCodigo());
+                if (produto == null) {
+                    produto = new ParcialProduto(p);
+                    produtos.put(p.getCodigo(), produto);
+                    ordem.add(produto);
+                }
+                produto.quantidade += item.getQuantidade();
+                produto.valor += subtotal;
+            }
+            Cliente c = venda.getCliente();
+            ParcialCliente cliente = clientes.get(c.getIdentificador());
+            if (cliente == null) {
+                cliente = new ParcialCliente(c);
+                clientes.put(c.getIdentificador(), cliente);
+                ordem.add(cliente);
+            }
+            cliente.gasto += total;
+            cliente.vendas.add(venda);
+            valorTotal += total;
+            quantidadeVendas++;
+        }
+
+        /**
+         * Acrescenta os totais do bloco seguinte. O que já existe aqui vem
+         * antes, tanto na ordem de aparição quanto nas vendas de cada cliente.
+         */
+        Parcial unir(Parcial seguinte) {
+            for (Object primeiro : seguinte.ordem) {
+                if (primeiro instanceof ParcialProduto) {
+                    ParcialProduto p = (ParcialProduto) primeiro;
+                    ParcialProduto existente = produtos.putIfAbsent(p.produto.getCodigo(), p);
+                    if (existente == null) {
+                        ordem.add(p);
+                    } else {
+                        existente.quantidade += p.quantidade;
+                        existente.valor += p.valor;
+                    }
+                } else {
+                    ParcialCliente c = (ParcialCliente) primeiro;
+                    ParcialCliente existente = clientes.putIfAbsent(c.cliente.getIdentificador(), c);
+                    if (existente == null) {
+                        ordem.add(c);
+                    } else {
+                        existente.gasto += c.gasto;
+                        existente.vendas.addAll(c.vendas);
+                    }
+                }
+            }
+            valorTotal += seguinte.valorTotal;
+            quantidadeVendas += seguinte.quantidadeVendas;
+            return this;
+        }
+    }
+
+    private static class ParcialProduto {
+        private Produto produto;
+        private int quantidade;
+        private long valor;
+
+        ParcialProduto(Produto produto) {
+            this.produto = produto;
+        }
+    }
+
+    private static class ParcialCliente {
+        private Cliente cliente;
+        private long gasto;
+        private List<Venda> vendas = new ArrayList<>();
+
+        ParcialCliente(Cliente cliente) {
+            this.cliente = cliente;
+        }
+    }
+
+    /**
+     * Quantidade e valor (centavos) vendidos de um produto.
+     */
+    public static class ContadorProduto {
+        private Produto produto;
+        private long ordem;
+        private int quantidade;
+        private long valor;
+
+        ContadorProduto(Produto produto, long ordem) {
+            this.produto = produto;
+            this.ordem = ordem;
+        }
+
+        synchronized void adicionar(int quantidade, long valor) {
+            this.quantidade += quantidade;
+            this.valor += valor;
+        }
+
+        public Produto getProduto() {
+            return produto;
+        }
+
+        public long getOrdem() {
+            return ordem;
+        }
+
+        public synchronized int getQuantidade() {
+            return quantidade;
+        }
+
+        public synchronized long getValor() {
+            return valor;
+        }
+    }
+
+    /**
+     * Gasto (centavos), quantidade de compras e vendas de um cliente.
+     */
+    public static class ContadorCliente {
+        private static final int TAMANHO_BLOCO = 1024;
+
+        private Cliente cliente;
+        private long ordem;
+        private long gasto;
+        private List<Venda> vendas;
+
+        ContadorCliente(Cliente cliente, long ordem) {
+            this.cliente = cliente;
+            this.ordem = ordem;
+            this.vendas = new ArrayList<>();
+        }
+
+        synchronized void adicionar(Venda venda, long valor) {
+            this.gasto += valor;
+            this.vendas.add(venda);
+        }
+
+        public Cliente getCliente() {
+            return cliente;
+        }
+
+        public long getOrdem() {
+            return ordem;
+        }
+
+        public synchronized long getGasto() {
+            return gasto;
+        }
+
+        public synchronized int getQuantidadeCompras() {
+            return vendas.size();
+        }
+
+        /**
+         * Cópia das vendas do cliente na ordem em que foram registradas.
+         */
+        public synchronized List<Venda> getVendas() {
+            return new ArrayList<>(vendas);
+        }
+
+        /**
+         * Percorre as vendas do cliente copiando blocos de tamanho fixo,
+         * sem copiar a lista inteira nem segurar a trava durante a ação.
+         */
+        public void paraCadaVenda(Consumer<? super Venda> acao) {
+            Venda[] bloco = new Venda[TAMANHO_BLOCO];
+            int inicio = 0;
+            while (true) {
+                int quantidade;
+                synchronized (this) {
+                    quantidade = Math.min(TAMANHO_BLOCO, vendas.size() - inicio);
+                    for (int i = 0; i < quantidade; i++) {
+                        bloco[i] = vendas.get(inicio + i);
+                    }
+                }
+                if (quantidade <= 0) {
+                    return;
+                }
+                for (int i = 0; i < quantidade; i++) {
+                    acao.accept(bloco[i]);
+                }
+                inicio += quantidade;
+            }
+        }
+    }
+}
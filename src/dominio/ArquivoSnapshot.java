@@ -0,0 +1,286 @@
+package dominio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Gravação segura dos arquivos de texto dos repositórios.
+ *
+ * O conteúdo é escrito em um arquivo temporário, sincronizado em disco e só
+ * então renomeado sobre o arquivo atual (que existe o tempo todo); o arquivo
+ * anterior é mantido como geração ".1", ".2", ... A última linha é um rodapé com o checksum
+ * ({@code #CRC32C;<hex>;<linhas>}), e a leitura usa o arquivo mais novo
+ * cujo checksum confere.
+ */
+public final class ArquivoSnapshot {
+    /** Gerações mantidas além do arquivo atual. */
+    public static final int GERACOES = 3;
+
+    private static final String CAMPO_RODAPE = "#CRC32C";
+    private static final String PREFIXO_RODAPE = CAMPO_RODAPE + ";";
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    private ArquivoSnapshot() {
+    }
+
+    /**
+     * Grava uma linha por item e substitui o arquivo atomicamente, mantendo
+     * {@code geracoes} cópias anteriores.
+     */
+    public static void gravar(String arquivo, Collection<? extends Persistivel> itens, int geracoes)
+            throws IOException {
+        Path destino = Paths.get(arquivo);
+        Path temporario = Paths.get(arquivo + ".tmp");
+        CRC32C crc = new CRC32C();
+        long linhas = 0;
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+            for (Persistivel item : itens) {
+                byte[] linha = (item.toLineString() + "\n").getBytes(StandardCharsets.UTF_8);
+                crc.update(linha);
+                buffer = escrever(canal, buffer, linha);
+                linhas++;
+            }
+            byte[] rodape = (PREFIXO_RODAPE + Long.toHexString(crc.getValue()) + ";" + linhas + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            buffer = escrever(canal, buffer, rodape);
+            descarregar(canal, buffer);
+            canal.force(true);
+        }
+        rotacionar(arquivo, geracoes);
+        Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        sincronizarDiretorio(destino);
+    }
+
+    /**
+     * Linhas (não vazias) do arquivo mais novo válido: o atual ou, se o
+     * checksum dele não conferir, a geração anterior mais recente que confira.
+     * Arquivos sem rodapé (gravados por versões antigas) são aceitos como estão.
+     *
+     * @throws IOException se nenhum arquivo existir ou nenhum for válido
+     */
+    public static List<String> carregar(String arquivo) throws IOException {
+        ArrayList<String> linhas = new ArrayList<>();
+        carregar(arquivo, linhas::ensureCapacity, registro -> linhas.add(registro.linha()));
+        return linhas;
+    }
+
+    /**
+     * Como {@link #carregar(String)}, mas sem criar uma String por linha:
+     * cada linha não vazia é entregue já separada em campos, sempre no mesmo
+     * {@link LeitorRegistro} (válido só durante a chamada). O arquivo é todo
+     * validado antes da primeira linha.
+     *
+     * @param reserva recebe a quantidade de linhas do arquivo, antes da
+     *                primeira, para pré-dimensionar o destino
+     * @throws IOException se nenhum arquivo existir ou nenhum for válido
+     */
+    public static void carregar(String arquivo, IntConsumer reserva, Consumer<LeitorRegistro> destino)
+            throws IOException {
+        carregar(arquivo, true, reserva, destino);
+    }
+
+    /**
+     * Como {@link #carregar(String, IntConsumer, Consumer)}; com
+     * {@code aceitarGeracaoAnterior} false só o arquivo atual serve (ex.: o
+     * diário já foi compactado sobre ele e as gerações anteriores estão
+     * desatualizadas).
+     *
+     * @throws IOException se o arquivo aceito não existir ou for inválido
+     */
+    public static void carregar(String arquivo, boolean aceitarGeracaoAnterior, IntConsumer reserva,
+            Consumer<LeitorRegistro> destino) throws IOException {
+        IOException ultimoErro = null;
+        int ultimaGeracao = aceitarGeracaoAnterior ? GERACOES : 0;
+        for (int geracao = 0; geracao <= ultimaGeracao; geracao++) {
+            Path caminho = Paths.get(nomeGeracao(arquivo, geracao));
+            if (!Files.exists(caminho)) {
+                continue;
+            }
+            Conteudo conteudo;
+            try {
+                conteudo = ler(caminho);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                ultimoErro = e;
+                continue;
+            }
+            if (geracao > 0) {
+                System.err.println("Arquivo " + arquivo + " inválido ou ausente; usando geração anterior: "
+                        + caminho);
+            }
+            reserva.accept((int) Math.min(Integer.MAX_VALUE - 8, conteudo.linhas));
+            conteudo.entregar(destino);
+            return;
+        }
+        throw ultimoErro != null ? ultimoErro : new IOException("Arquivo não encontrado: " + arquivo);
+    }
+
+    /**
+     * Indica se a linha é o rodapé de checksum gravado por {@link #gravar}
+     * (ex.: para quem lê os arquivos do sistema linha a linha, como a importação).
+     */
+    static boolean rodape(LeitorRegistro linha) {
+        return linha.quantidadeCampos() == 3 && linha.igual(0, CAMPO_RODAPE);
+    }
+
+    public static String nomeGeracao(String arquivo, int geracao) {
+        return geracao == 0 ? arquivo : arquivo + "." + geracao;
+    }
+
+    // ========== AUXILIARES ==========
+
+    /**
+     * Lê e valida o arquivo (checksum e quantidade de linhas do rodapé).
+     */
+    private static Conteudo ler(Path caminho) throws IOException {
+        byte[] bytes = Files.readAllBytes(caminho);
+        int fimConteudo = bytes.length;
+        long crcEsperado = -1;
+        long linhasEsperadas = -1;
+
+        // Localiza a última linha e verifica se é o rodapé
+        int fim = bytes.length;
+        while (fim > 0 && (bytes[fim - 1] == '\n' || bytes[fim - 1] == '\r')) {
+            fim--;
+        }
+        int inicioUltima = fim;
+        while (inicioUltima > 0 && bytes[inicioUltima - 1] != '\n') {
+            inicioUltima--;
+        }
+        String ultima = new String(bytes, inicioUltima, fim - inicioUltima, StandardCharsets.UTF_8);
+        if (ultima.startsWith(PREFIXO_RODAPE)) {
+            String[] partes = ultima.split(";");
+            try {
+                crcEsperado = Long.parseLong(partes[1], 16);
+                linhasEsperadas = Long.parseLong(partes[2]);
+            } catch (RuntimeException e) {
+                throw new IOException("Rodapé inválido em " + caminho);
+            }
+            fimConteudo = inicioUltima;
+            CRC32C crc = new CRC32C();
+            crc.update(bytes, 0, fimConteudo);
+            if (crc.getValue() != crcEsperado) {
+                throw new IOException("Checksum não confere em " + caminho);
+            }
+        }
+
+        long total = 0;
+        for (int i = 0; i < fimConteudo; i++) {
+            if (bytes[i] == '\n') {
+                total++;
+            }
+        }
+        if (fimConteudo > 0 && bytes[fimConteudo - 1] != '\n') {
+            total++; // Última linha sem '\n'
+        }
+        if (linhasEsperadas >= 0 && total != linhasEsperadas) {
+            throw new IOException("Quantidade de linhas não confere em " + caminho);
+        }
+        return new Conteudo(bytes, fimConteudo, total);
+    }
+
+    /**
+     * Bytes de um arquivo já validado, até o início do rodapé.
+     */
+    private static class Conteudo {
+        private byte[] bytes;
+        private int fim;
+        private long linhas;
+
+        Conteudo(byte[] bytes, int fim, long linhas) {
+            this.bytes = bytes;
+            this.fim = fim;
+            this.linhas = linhas;
+        }
+
+        void entregar(Consumer<LeitorRegistro> destino) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            LeitorRegistro registro = new LeitorRegistro();
+            int inicio = 0;
+            while (inicio < fim) {
+                int proxima = registro.separarLinha(buffer, inicio, fim);
+                if (!registro.vazio()) {
+                    destino.accept(registro);
+                }
+                inicio = proxima;
+            }
+        }
+    }
+
+    private static ByteBuffer escrever(FileChannel canal, ByteBuffer buffer, byte[] dados) throws IOException {
+        if (buffer.remaining() < dados.length) {
+            descarregar(canal, buffer);
+            if (buffer.capacity() < dados.length) {
+                buffer = ByteBuffer.allocateDirect(dados.length);
+            }
+        }
+        buffer.put(dados);
+        return buffer;
+    }
+
+    private static void descarregar(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * arquivo.(n-1) -> arquivo.n, ..., arquivo.1 -> arquivo.2; a mais antiga é
+     * descartada. O arquivo atual não é movido: vira arquivo.1 por um link
+     * (ou cópia), de modo que o caminho atual sempre existe até ser
+     * substituído pelo novo. Também usado pelo {@link SnapshotBinario}.
+     */
+    static void rotacionar(String arquivo, int geracoes) throws IOException {
+        if (geracoes <= 0) {
+            return;
+        }
+        Files.deleteIfExists(Paths.get(nomeGeracao(arquivo, geracoes)));
+        for (int geracao = geracoes - 1; geracao >= 1; geracao--) {
+            Path origem = Paths.get(nomeGeracao(arquivo, geracao));
+            if (Files.exists(origem)) {
+                Files.move(origem, Paths.get(nomeGeracao(arquivo, geracao + 1)), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        Path atual = Paths.get(arquivo);
+        if (Files.exists(atual)) {
+            Path primeira = Paths.get(nomeGeracao(arquivo, 1));
+            Files.deleteIfExists(primeira);
+            try {
+                Files.createLink(primeira, atual);
+            } catch (IOException | UnsupportedOperationException e) {
+                // Sem links no sistema de arquivos: copia
+                Files.copy(atual, primeira, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Garante que a renomeação esteja em disco. Nem todo sistema permite abrir
+     * um diretório; nesse caso a sincronização é ignorada.
+     */
+    static void sincronizarDiretorio(Path arquivo) {
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Sem suporte (ex.: Windows): a renomeação continua atômica
+        }
+    }
+}
@@ -23,6 +23,14 @@ public abstract class Cliente implements Persistivel {
      */
     public abstract String getIdentificador();
 
+    /**
+     * Constrói um ClientePF ou ClientePJ a partir de uma linha completa do
+     * arquivo (com prefixo PF; ou PJ;). Retorna null se o prefixo for desconhecido.
+     */
+    public static Cliente fromString(String linha) {
+        return new LeitorRegistro().separar(linha).cliente();
+    }
+
     public String getNome() {
         return nome;
     }
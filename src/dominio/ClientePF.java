@@ -23,24 +23,19 @@ public class ClientePF extends Cliente {
      */
     @Override
     public String toLineString() {
-        return String.format(java.util.Locale.US,"PF;%s;%s;%s;%d;%.2f",
-                this.getIdentificador(),
-                this.getNome(),
-                this.getEmail(),
-                this.getConta().getNumero(),
-                this.getConta().getSaldo());
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("PF;").append(this.getIdentificador())
+                .append(';').append(this.getNome())
+                .append(';').append(this.getEmail())
+                .append(';').append(this.getConta().getNumero()).append(';');
+        return Dinheiro.formatar(this.getConta().getSaldoCentavos(), sb).toString();
     }
 
     /**
-     * Constrói um ClientePF a partir de uma linha lida do arquivo.
+     * Constrói um ClientePF a partir de uma linha lida do arquivo (sem o prefixo PF;).
      */
     public static ClientePF fromString(String linha) {
-        String[] partes = linha.split(";");
-        int numConta = Integer.parseInt(partes[3]);
-        double saldoConta = Double.parseDouble(partes[4].replace(",","."));
-        Conta conta = new Conta(numConta);
-        conta.depositar(saldoConta);
-        return new ClientePF(partes[1], partes[2], conta, partes[0]);
+        return new LeitorRegistro().separar(linha).clientePF(0);
     }
 
     /**
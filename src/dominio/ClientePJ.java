@@ -18,26 +18,28 @@ public class ClientePJ extends Cliente {
 
     @Override
     public String toLineString() {
-        return String.format(java.util.Locale.US,"PJ;%s;%s;%s;%s;%d;%.2f",
-                this.getIdentificador(),
-                this.getNome(),
-                this.getEmail(),
-                this.razaoSocial,
-                this.getConta().getNumero(),
-                this.getConta().getSaldo());
+        StringBuilder sb = new StringBuilder(96);
+        sb.append("PJ;").append(this.getIdentificador())
+                .append(';').append(this.getNome())
+                .append(';').append(this.getEmail())
+                .append(';').append(this.razaoSocial)
+                .append(';').append(this.getConta().getNumero()).append(';');
+        return Dinheiro.formatar(this.getConta().getSaldoCentavos(), sb).toString();
     }
 
+    /**
+     * Constrói um ClientePJ a partir de uma linha lida do arquivo (sem o prefixo PJ;).
+     */
     public static ClientePJ fromString(String linha) {
-        String[] partes = linha.split(";");
-        int numConta = Integer.parseInt(partes[4]);
-        double saldoConta = Double.parseDouble(partes[5].replace(",","."));
-        Conta conta = new Conta(numConta);
-        conta.depositar(saldoConta);
-        return new ClientePJ(partes[1], partes[2], conta, partes[0], partes[3]);
+        return new LeitorRegistro().separar(linha).clientePJ(0);
     }
 
     @Override
     public String getIdentificador() {
         return this.cnpj;
     }
+
+    public String getRazaoSocial() {
+        return razaoSocial;
+    }
 }
@@ -1,57 +1,150 @@
 package dominio;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Representa uma conta bancária simples com número e saldo.
  * Fornece operações de depósito, débito e transferência.
+ * Valores em centavos (ver {@link Dinheiro}). O saldo é atualizado por
+ * compare-and-set, então várias threads (terminais) podem movimentar a
+ * mesma conta sem perder atualizações. Cada movimento é acrescentado ao
+ * {@link ExtratoConta} da conta, criado no primeiro movimento.
  */
 public class Conta implements Persistivel {
+    private static final VarHandle SALDO;
+    private static final VarHandle EXTRATO;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            SALDO = lookup.findVarHandle(Conta.class, "saldo", long.class);
+            EXTRATO = lookup.findVarHandle(Conta.class, "extrato", ExtratoConta.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private int numero;
-    private double saldo;
+    private volatile long saldo;
+    private volatile ExtratoConta extrato;
 
     public Conta(int numero) {
         this.numero = numero;
-        this.saldo = 0.0;
+        this.saldo = 0;
     }
 
-    public boolean depositar(double valor) {
+    public boolean depositar(long valor) {
         if (valor > 0) {
-            this.saldo += valor;
+            creditar(ExtratoConta.TipoMovimento.DEPOSITO, valor);
             return true;
         }
         return false;
     }
 
-    public boolean debitar(double valor) throws SaldoInsuficienteException {
-        if (valor <= 0) {
-            throw new IllegalArgumentException("Valor de débito inválido.");
-        }
-        if (this.saldo >= valor) {
-            this.saldo -= valor;
-            return true;
+    public boolean debitar(long valor) throws SaldoInsuficienteException {
+        retirar(ExtratoConta.TipoMovimento.DEBITO, valor);
+        return true;
+    }
+
+    public boolean transferir(Conta destino, long valor) throws SaldoInsuficienteException {
+        retirar(ExtratoConta.TipoMovimento.TRANSFERENCIA_ENVIADA, valor);
+        destino.creditar(ExtratoConta.TipoMovimento.TRANSFERENCIA_RECEBIDA, valor);
+        return true;
+    }
+
+    /**
+     * Aplica um movimento já aceito, sem validações (reprodução do diário).
+     */
+    void reproduzir(ExtratoConta.TipoMovimento tipo, long valor) {
+        if (tipo.isEntrada()) {
+            creditar(tipo, valor);
         } else {
-            throw new SaldoInsuficienteException("Saldo insuficiente.");
+            long saldoApos = (long) SALDO.getAndAdd(this, -valor) - valor;
+            getExtrato().registrar(tipo, valor, saldoApos);
         }
     }
 
-    public boolean transferir(Conta destino, double valor) throws SaldoInsuficienteException {
-        if (this.debitar(valor)) {
-            return destino.depositar(valor);
-        }
-        return false;
+    /**
+     * Define o saldo diretamente (ponto de verificação do diário).
+     */
+    void definirSaldo(long saldo) {
+        this.saldo = saldo;
     }
 
     public int getNumero() {
         return numero;
     }
 
-    public double getSaldo() {
+    /**
+     * Saldo em centavos.
+     */
+    public long getSaldoCentavos() {
         return saldo;
     }
 
+    /**
+     * Extrato da conta (criado vazio se ainda não houve movimento).
+     */
+    public ExtratoConta getExtrato() {
+        ExtratoConta atual = extrato;
+        if (atual == null) {
+            ExtratoConta novo = new ExtratoConta();
+            atual = (ExtratoConta) EXTRATO.compareAndExchange(this, null, novo);
+            if (atual == null) {
+                atual = novo;
+            }
+        }
+        return atual;
+    }
+
+    /**
+     * Quantidade de movimentos do tipo, sem criar o extrato.
+     */
+    public long quantidadeMovimentos(ExtratoConta.TipoMovimento tipo) {
+        ExtratoConta atual = extrato;
+        return atual == null ? 0 : atual.quantidade(tipo);
+    }
+
+    /**
+     * Soma dos valores (centavos) dos movimentos do tipo, sem criar o extrato.
+     */
+    public long valorMovimentado(ExtratoConta.TipoMovimento tipo) {
+        ExtratoConta atual = extrato;
+        return atual == null ? 0 : atual.valor(tipo);
+    }
+
+    /**
+     * Indica se há algum movimento registrado, sem criar o extrato.
+     */
+    public boolean temMovimentos() {
+        ExtratoConta atual = extrato;
+        return atual != null && atual.quantidadeTotal() > 0;
+    }
+
     @Override
     public String toLineString() {
-        return String.format("%d;%.2f",
-                this.numero,
-                this.saldo);
+        StringBuilder sb = new StringBuilder(24);
+        sb.append(this.numero).append(';');
+        return Dinheiro.formatar(this.saldo, sb).toString();
+    }
+
+    private void creditar(ExtratoConta.TipoMovimento tipo, long valor) {
+        long saldoApos = (long) SALDO.getAndAdd(this, valor) + valor;
+        getExtrato().registrar(tipo, valor, saldoApos);
+    }
+
+    private void retirar(ExtratoConta.TipoMovimento tipo, long valor) throws SaldoInsuficienteException {
+        if (valor <= 0) {
+            throw new IllegalArgumentException("Valor de débito inválido.");
+        }
+        long atual;
+        do {
+            atual = this.saldo;
+            if (atual < valor) {
+                throw new SaldoInsuficienteException("Saldo insuficiente.");
+            }
+        } while (!SALDO.compareAndSet(this, atual, atual - valor));
+        getExtrato().registrar(tipo, valor, atual - valor);
     }
 }
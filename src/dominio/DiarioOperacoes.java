@@ -0,0 +1,187 @@
+package dominio;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diário de operações (write-ahead log) somente de acréscimo.
+ * Cada registro é uma linha de texto. Os registros pendentes são gravados e
+ * sincronizados com o disco juntos (group commit): quem pede a sincronização
+ * grava também os registros que outras threads acumularam até ali.
+ */
+public class DiarioOperacoes {
+    private String nomeArquivo;
+    private FileChannel canal;
+    private StringBuilder pendentes;
+    private long sequenciaEscrita;
+    private long sequenciaPersistida;
+    private int registrosDesdeCompactacao;
+    private final Object travaSincronizacao = new Object();
+
+    public DiarioOperacoes(String nomeArquivo) {
+        this.nomeArquivo = nomeArquivo;
+        this.pendentes = new StringBuilder();
+    }
+
+    /**
+     * Acrescenta um registro ao diário (ainda sem garantir que chegou ao disco).
+     *
+     * @return número de sequência do registro, usado em {@link #sincronizar(long)}
+     */
+    public synchronized long registrar(String registro) {
+        pendentes.append(registro).append('\n');
+        registrosDesdeCompactacao++;
+        return ++sequenciaEscrita;
+    }
+
+    /**
+     * Acrescenta vários registros de uma vez, já separados e terminados por '\n'.
+     *
+     * @param quantidade número de registros no bloco
+     * @return número de sequência do último registro
+     */
+    public synchronized long registrarBloco(CharSequence registros, int quantidade) {
+        pendentes.append(registros);
+        registrosDesdeCompactacao += quantidade;
+        sequenciaEscrita += quantidade;
+        return sequenciaEscrita;
+    }
+
+    /**
+     * Garante que o registro informado (e todos os anteriores) está no disco.
+     * Se outra thread já sincronizou além dessa sequência, retorna sem I/O.
+     */
+    public void sincronizar(long sequencia) {
+        synchronized (travaSincronizacao) {
+            if (sequenciaPersistida >= sequencia) {
+                return;
+            }
+            String dados;
+            long ate;
+            synchronized (this) {
+                dados = pendentes.toString();
+                pendentes.setLength(0);
+                ate = sequenciaEscrita;
+            }
+            try {
+                abrirSeNecessario();
+                ByteBuffer buffer = StandardCharsets.UTF_8.encode(dados);
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(false);
+                sequenciaPersistida = ate;
+            } catch (IOException e) {
+                synchronized (this) {
+                    pendentes.insert(0, dados);
+                }
+                System.err.println("Erro ao gravar diário de operações: " + this.nomeArquivo);
+            }
+        }
+    }
+
+    /**
+     * Sincroniza todos os registros aceitos até o momento.
+     */
+    public void sincronizar() {
+        long ate;
+        synchronized (this) {
+            ate = sequenciaEscrita;
+        }
+        sincronizar(ate);
+    }
+
+    /**
+     * Lê todos os registros gravados no arquivo, em ordem.
+     */
+    public List<String> lerRegistros() {
+        List<String> registros = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(nomeArquivo), StandardCharsets.UTF_8)) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (!linha.isEmpty()) {
+                    registros.add(linha);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Sem diário: nada a reproduzir.
+        } catch (IOException e) {
+            System.err.println("Erro ao ler diário de operações: " + this.nomeArquivo);
+        }
+        return registros;
+    }
+
+    /**
+     * Substitui o conteúdo do diário pelos registros informados (compactação).
+     * Grava em arquivo temporário, sincroniza e renomeia atomicamente.
+     */
+    public void reescrever(List<String> registros) throws IOException {
+        synchronized (travaSincronizacao) {
+            synchronized (this) {
+                Path destino = Paths.get(nomeArquivo);
+                Path temporario = Paths.get(nomeArquivo + ".tmp");
+                try (FileChannel tmp = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    StringBuilder sb = new StringBuilder();
+                    for (String registro : registros) {
+                        sb.append(registro).append('\n');
+                    }
+                    ByteBuffer buffer = StandardCharsets.UTF_8.encode(sb.toString());
+                    while (buffer.hasRemaining()) {
+                        tmp.write(buffer);
+                    }
+                    tmp.force(true);
+                }
+                fechar();
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                pendentes.setLength(0);
+                sequenciaPersistida = sequenciaEscrita;
+                registrosDesdeCompactacao = 0;
+            }
+        }
+    }
+
+    /**
+     * Quantidade de registros acrescentados desde a última compactação.
+     */
+    public synchronized int getRegistrosDesdeCompactacao() {
+        return registrosDesdeCompactacao;
+    }
+
+    public String getNomeArquivo() {
+        return nomeArquivo;
+    }
+
+    /**
+     * Fecha o arquivo; ele é reaberto automaticamente na próxima gravação.
+     */
+    public synchronized void fechar() {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar diário de operações: " + this.nomeArquivo);
+            }
+            canal = null;
+        }
+    }
+
+    private synchronized void abrirSeNecessario() throws IOException {
+        if (canal == null) {
+            canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dominio;
+
+/**
+ * Operações sobre valores monetários representados como long de centavos.
+ * Não há objeto de dinheiro: os valores circulam como primitivos, sem
+ * alocação, e a formatação/leitura não passa por String.format nem BigDecimal.
+ */
+public final class Dinheiro {
+    private Dinheiro() {
+    }
+
+    /**
+     * Converte um texto como "349.99", "349,99", "80", "-1.5" em centavos.
+     * Aceita ponto ou vírgula como separador decimal; a partir da terceira
+     * casa decimal o valor é arredondado (meio para cima).
+     *
+     * @throws NumberFormatException se o texto não for um valor válido
+     */
+    public static long parse(CharSequence texto) {
+        return parse(texto, 0, texto.length());
+    }
+
+    /**
+     * Converte o trecho [inicio, fim) do texto em centavos (ver {@link #parse(CharSequence)}).
+     */
+    public static long parse(CharSequence texto, int inicio, int fim) {
+        int i = inicio;
+        while (i < fim && texto.charAt(i) == ' ') {
+            i++;
+        }
+        while (fim > i && texto.charAt(fim - 1) == ' ') {
+            fim--;
+        }
+        boolean negativo = false;
+        if (i < fim && (texto.charAt(i) == '-' || texto.charAt(i) == '+')) {
+            negativo = texto.charAt(i) == '-';
+            i++;
+        }
+        long reais = 0;
+        int digitos = 0;
+        while (i < fim) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            reais = Math.addExact(Math.multiplyExact(reais, 10), c - '0');
+            digitos++;
+            i++;
+        }
+        long centavos = 0;
+        if (i < fim && (texto.charAt(i) == '.' || texto.charAt(i) == ',')) {
+            i++;
+            int casas = 0;
+            while (i < fim) {
+                char c = texto.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                if (casas < 2) {
+                    centavos = centavos * 10 + (c - '0');
+                } else if (casas == 2 && c >= '5') {
+                    centavos++;
+                }
+                casas++;
+                digitos++;
+                i++;
+            }
+            if (casas == 1) {
+                centavos *= 10;
+            }
+        }
+        if (digitos == 0 || i != fim) {
+            throw new NumberFormatException("Valor monetário inválido: " + texto.subSequence(inicio, fim));
+        }
+        long valor = Math.addExact(Math.multiplyExact(reais, 100), centavos);
+        return negativo ? -valor : valor;
+    }
+
+    /**
+     * Formata centavos como "1234.56" (ponto decimal, independente do Locale).
+     */
+    public static String formatar(long centavos) {
+        return formatar(centavos, new StringBuilder(24)).toString();
+    }
+
+    /**
+     * Acrescenta o valor formatado ao StringBuilder, sem criar Strings intermediárias.
+     */
+    public static StringBuilder formatar(long centavos, StringBuilder destino) {
+        if (centavos < 0) {
+            destino.append('-');
+            if (centavos == Long.MIN_VALUE) {
+                // -Long.MIN_VALUE não cabe em long
+                return destino.append(Long.toString(centavos).substring(1, 18)).append('.').append("08");
+            }
+            centavos = -centavos;
+        }
+        long resto = centavos % 100;
+        destino.append(centavos / 100).append('.');
+        if (resto < 10) {
+            destino.append('0');
+        }
+        return destino.append(resto);
+    }
+
+    /**
+     * Preço unitário vezes quantidade, falhando em caso de estouro.
+     */
+    public static long multiplicar(long centavos, int quantidade) {
+        return Math.multiplyExact(centavos, (long) quantidade);
+    }
+
+    /**
+     * Divisão arredondada (meio para longe do zero), usada em médias.
+     */
+    public static long dividir(long centavos, long divisor) {
+        if (divisor == 0) {
+            return 0;
+        }
+        long quociente = centavos / divisor;
+        long resto = centavos % divisor;
+        if (Math.abs(resto) * 2 >= Math.abs(divisor)) {
+            quociente += (centavos < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quociente;
+    }
+}
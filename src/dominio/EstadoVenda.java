@@ -0,0 +1,11 @@
+package dominio;
+
+/**
+ * Ciclo de vida de uma venda: aberta até ser finalizada (conta debitada)
+ * ou cancelada (nada debitado). Só vendas abertas aceitam alterações.
+ */
+public enum EstadoVenda {
+    ABERTA,
+    FINALIZADA,
+    CANCELADA;
+}
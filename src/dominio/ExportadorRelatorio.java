@@ -0,0 +1,192 @@
+package dominio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Destino de linhas de relatório que grava cada linha assim que a recebe,
+ * em CSV (separador ';', como os arquivos do sistema) ou JSON lines.
+ * Usado com os métodos exportar* de {@link RelatorioVendas}, mantém a memória
+ * limitada ao buffer de escrita, independente do tamanho do relatório.
+ */
+public class ExportadorRelatorio<T extends LinhaRelatorio> implements Consumer<T>, AutoCloseable {
+    public enum Formato {
+        CSV,
+        JSON_LINHAS
+    }
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private Writer destino;
+    private Formato formato;
+    private StringBuilder linha;
+    private boolean cabecalhoEscrito;
+    private boolean primeiroCampo;
+    private boolean modoCabecalho;
+    private long linhasEscritas;
+
+    public ExportadorRelatorio(Writer destino, Formato formato) {
+        this.destino = new BufferedWriter(destino, TAMANHO_BUFFER);
+        this.formato = formato;
+        this.linha = new StringBuilder(256);
+    }
+
+    /**
+     * Grava uma linha. Erros de I/O são relançados como UncheckedIOException,
+     * interrompendo a exportação.
+     */
+    @Override
+    public void accept(T registro) {
+        try {
+            if (formato == Formato.CSV && !cabecalhoEscrito) {
+                modoCabecalho = true;
+                iniciarLinha();
+                registro.escrever(campos);
+                terminarLinha();
+                modoCabecalho = false;
+                cabecalhoEscrito = true;
+            }
+            iniciarLinha();
+            registro.escrever(campos);
+            terminarLinha();
+            linhasEscritas++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao exportar relatório", e);
+        }
+    }
+
+    public long getLinhasEscritas() {
+        return linhasEscritas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        destino.close();
+    }
+
+    private void iniciarLinha() {
+        linha.setLength(0);
+        primeiroCampo = true;
+        if (formato == Formato.JSON_LINHAS) {
+            linha.append('{');
+        }
+    }
+
+    private void terminarLinha() throws IOException {
+        if (formato == Formato.JSON_LINHAS) {
+            linha.append('}');
+        }
+        linha.append('\n');
+        destino.append(linha);
+    }
+
+    private final LinhaRelatorio.Campos campos = new LinhaRelatorio.Campos() {
+        @Override
+        public void texto(String nome, String valor) {
+            if (separar(nome)) {
+                return;
+            }
+            if (formato == Formato.CSV) {
+                escaparCsv(valor);
+            } else {
+                escaparJson(valor);
+            }
+        }
+
+        @Override
+        public void inteiro(String nome, long valor) {
+            if (!separar(nome)) {
+                linha.append(valor);
+            }
+        }
+
+        @Override
+        public void dinheiro(String nome, long centavos) {
+            if (!separar(nome)) {
+                Dinheiro.formatar(centavos, linha);
+            }
+        }
+    };
+
+    /**
+     * Escreve o separador e o nome do campo (JSON) ou, no modo cabeçalho,
+     * apenas o nome. Retorna true se o valor não deve ser escrito.
+     */
+    private boolean separar(String nome) {
+        if (!primeiroCampo) {
+            linha.append(formato == Formato.CSV ? ';' : ',');
+        }
+        primeiroCampo = false;
+        if (modoCabecalho) {
+            linha.append(nome);
+            return true;
+        }
+        if (formato == Formato.JSON_LINHAS) {
+            escaparJson(nome);
+            linha.append(':');
+        }
+        return false;
+    }
+
+    private void escaparCsv(String valor) {
+        if (valor == null) {
+            return;
+        }
+        boolean aspas = false;
+        for (int i = 0; i < valor.length() && !aspas; i++) {
+            char c = valor.charAt(i);
+            aspas = c == ';' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!aspas) {
+            linha.append(valor);
+            return;
+        }
+        linha.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                linha.append('"');
+            }
+            linha.append(c);
+        }
+        linha.append('"');
+    }
+
+    private void escaparJson(String valor) {
+        if (valor == null) {
+            linha.append("null");
+            return;
+        }
+        linha.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"':
+                    linha.append("\\\"");
+                    break;
+                case '\\':
+                    linha.append("\\\\");
+                    break;
+                case '\n':
+                    linha.append("\\n");
+                    break;
+                case '\r':
+                    linha.append("\\r");
+                    break;
+                case '\t':
+                    linha.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        linha.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        linha.append(c);
+                    }
+            }
+        }
+        linha.append('"');
+    }
+}
@@ -0,0 +1,169 @@
+package dominio;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Histórico de movimentos de uma {@link Conta}, só de acréscimo e sem travas.
+ * Cada movimento ocupa três longs num bloco de vetores primitivos (tipo e
+ * instante, valor, saldo depois do movimento); os blocos dobram de tamanho,
+ * a partir de {@link #TAMANHO_PRIMEIRO_BLOCO}, e são criados só quando usados.
+ *
+ * Quem registra reserva a posição com um incremento atômico e publica o
+ * movimento gravando por último o campo do tipo; leitores param no primeiro
+ * movimento ainda não publicado. Quantidade e valor por tipo ficam em
+ * contadores próprios, lidos em O(1).
+ */
+public class ExtratoConta {
+    public static final int TAMANHO_PRIMEIRO_BLOCO = 8;
+
+    private static final int BITS_PRIMEIRO_BLOCO = Integer.numberOfTrailingZeros(TAMANHO_PRIMEIRO_BLOCO);
+    private static final int BLOCOS = 32 - BITS_PRIMEIRO_BLOCO;
+    private static final int CAMPOS = 3;
+    private static final int BITS_TIPO = 3;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle TAMANHO;
+
+    static {
+        try {
+            TAMANHO = MethodHandles.lookup().findVarHandle(ExtratoConta.class, "tamanho", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Tipos de movimento. Entradas somam ao saldo; os demais subtraem.
+     */
+    public enum TipoMovimento {
+        DEPOSITO(true),
+        DEBITO(false),
+        TRANSFERENCIA_ENVIADA(false),
+        TRANSFERENCIA_RECEBIDA(true);
+
+        private boolean entrada;
+
+        TipoMovimento(boolean entrada) {
+            this.entrada = entrada;
+        }
+
+        public boolean isEntrada() {
+            return entrada;
+        }
+    }
+
+    private static final TipoMovimento[] TIPOS = TipoMovimento.values();
+
+    private AtomicReferenceArray<long[]> blocos;
+    private volatile int tamanho;
+    // Por tipo (ordinal): quantidade e soma dos valores
+    private long[] quantidades;
+    private long[] valores;
+
+    public ExtratoConta() {
+        this.blocos = new AtomicReferenceArray<>(BLOCOS);
+        this.quantidades = new long[TIPOS.length];
+        this.valores = new long[TIPOS.length];
+    }
+
+    /**
+     * Acrescenta um movimento. Pode ser chamado de várias threads; a ordem
+     * no extrato é a da reserva de posição, que pode diferir da ordem em
+     * que os saldos foram atualizados.
+     *
+     * @param valor     valor em centavos (positivo)
+     * @param saldoApos saldo da conta logo depois do movimento
+     */
+    public void registrar(TipoMovimento tipo, long valor, long saldoApos) {
+        int posicao = (int) TAMANHO.getAndAdd(this, 1);
+        int n = posicao + TAMANHO_PRIMEIRO_BLOCO;
+        int bloco = 31 - Integer.numberOfLeadingZeros(n) - BITS_PRIMEIRO_BLOCO;
+        int i = (n - (TAMANHO_PRIMEIRO_BLOCO << bloco)) * CAMPOS;
+        long[] campos = bloco(bloco);
+        campos[i + 1] = valor;
+        campos[i + 2] = saldoApos;
+        // Gravado por último: publica o movimento (0 = ainda não publicado)
+        LONGS.setRelease(campos, i, System.currentTimeMillis() << BITS_TIPO | (tipo.ordinal() + 1));
+        LONGS.getAndAdd(quantidades, tipo.ordinal(), 1L);
+        LONGS.getAndAdd(valores, tipo.ordinal(), valor);
+    }
+
+    /**
+     * Quantidade de movimentos registrados (alguns podem estar sendo gravados).
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Quantidade de movimentos do tipo, inclusive os anteriores ao último
+     * carregamento (ver {@link #definirTotais}).
+     */
+    public long quantidade(TipoMovimento tipo) {
+        return (long) LONGS.getVolatile(quantidades, tipo.ordinal());
+    }
+
+    /**
+     * Soma dos valores (centavos) dos movimentos do tipo.
+     */
+    public long valor(TipoMovimento tipo) {
+        return (long) LONGS.getVolatile(valores, tipo.ordinal());
+    }
+
+    public long quantidadeTotal() {
+        long total = 0;
+        for (TipoMovimento tipo : TIPOS) {
+            total += quantidade(tipo);
+        }
+        return total;
+    }
+
+    /**
+     * Visita os movimentos publicados, do mais antigo ao mais novo.
+     */
+    public void paraCada(Visitante visitante) {
+        int fim = tamanho;
+        for (int posicao = 0; posicao < fim; posicao++) {
+            int n = posicao + TAMANHO_PRIMEIRO_BLOCO;
+            int bloco = 31 - Integer.numberOfLeadingZeros(n) - BITS_PRIMEIRO_BLOCO;
+            long[] campos = blocos.get(bloco);
+            int i = (n - (TAMANHO_PRIMEIRO_BLOCO << bloco)) * CAMPOS;
+            long cabecalho = campos == null ? 0 : (long) LONGS.getAcquire(campos, i);
+            if (cabecalho == 0) {
+                return; // Ainda sendo gravado
+            }
+            visitante.visitar(TIPOS[(int) (cabecalho & ((1 << BITS_TIPO) - 1)) - 1], cabecalho >>> BITS_TIPO,
+                    campos[i + 1], campos[i + 2]);
+        }
+    }
+
+    /**
+     * Substitui os contadores pelos gravados no diário (o histórico de
+     * movimentos em si não é gravado). Usado só no carregamento.
+     */
+    void definirTotais(TipoMovimento tipo, long quantidade, long valor) {
+        LONGS.setVolatile(quantidades, tipo.ordinal(), quantidade);
+        LONGS.setVolatile(valores, tipo.ordinal(), valor);
+    }
+
+    private long[] bloco(int indice) {
+        long[] bloco = blocos.get(indice);
+        if (bloco == null) {
+            long[] novo = new long[(TAMANHO_PRIMEIRO_BLOCO << indice) * CAMPOS];
+            bloco = blocos.compareAndSet(indice, null, novo) ? novo : blocos.get(indice);
+        }
+        return bloco;
+    }
+
+    /**
+     * Recebe um movimento do extrato.
+     */
+    @FunctionalInterface
+    public interface Visitante {
+        /**
+         * @param instante momento do registro (ms desde a época)
+         */
+        void visitar(TipoMovimento tipo, long instante, long valor, long saldoApos);
+    }
+}
@@ -0,0 +1,177 @@
+package dominio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências em nanossegundos, no estilo do HdrHistogram:
+ * faixas em potências de 2, cada uma dividida em {@link #SUBFAIXAS} partes
+ * iguais (erro relativo de no máximo ~3%). Registrar é só um incremento
+ * atômico, sem travas nem alocação; pode ser chamado de várias threads.
+ */
+public class HistogramaLatencia {
+    /** Subdivisões de cada potência de 2 (precisa ser potência de 2). */
+    public static final int SUBFAIXAS = 32;
+
+    private static final int BITS_SUBFAIXA = Integer.numberOfTrailingZeros(SUBFAIXAS);
+    private static final int POSICOES = (64 - BITS_SUBFAIXA + 1) * SUBFAIXAS;
+
+    private String nome;
+    private AtomicLongArray contagens;
+    private LongAdder soma;
+    private AtomicLong maximo;
+
+    public HistogramaLatencia(String nome) {
+        this.nome = nome;
+        this.contagens = new AtomicLongArray(POSICOES);
+        this.soma = new LongAdder();
+        this.maximo = new AtomicLong();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Registra uma duração em nanossegundos (valores negativos contam como 0).
+     */
+    public void registrar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        contagens.incrementAndGet(posicao(nanos));
+        soma.add(nanos);
+        long atual = maximo.get();
+        while (nanos > atual && !maximo.compareAndSet(atual, nanos)) {
+            atual = maximo.get();
+        }
+    }
+
+    /**
+     * Registra o tempo decorrido desde {@code inicio} (de {@link System#nanoTime()}).
+     */
+    public void registrarDesde(long inicio) {
+        registrar(System.nanoTime() - inicio);
+    }
+
+    /**
+     * Cópia dos valores atuais. Registros feitos durante a cópia podem ou não
+     * aparecer nela, mas cada um aparece inteiro ou não aparece.
+     */
+    public Resumo resumir() {
+        long[] copia = new long[POSICOES];
+        long total = 0;
+        for (int i = 0; i < POSICOES; i++) {
+            copia[i] = contagens.get(i);
+            total += copia[i];
+        }
+        return new Resumo(nome, copia, total, soma.sum(), maximo.get());
+    }
+
+    public void zerar() {
+        for (int i = 0; i < POSICOES; i++) {
+            contagens.set(i, 0);
+        }
+        soma.reset();
+        maximo.set(0);
+    }
+
+    // Valores menores que SUBFAIXAS ficam em posições exatas; os demais usam
+    // os BITS_SUBFAIXA bits seguintes ao bit mais alto.
+    static int posicao(long valor) {
+        if (valor < SUBFAIXAS) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int subfaixa = (int) (valor >>> (expoente - BITS_SUBFAIXA)) & (SUBFAIXAS - 1);
+        return (expoente - BITS_SUBFAIXA + 1) * SUBFAIXAS + subfaixa;
+    }
+
+    /**
+     * Maior valor que cai na posição (limite superior da faixa).
+     */
+    static long limiteSuperior(int posicao) {
+        if (posicao < SUBFAIXAS) {
+            return posicao;
+        }
+        int expoente = posicao / SUBFAIXAS + BITS_SUBFAIXA - 1;
+        long inicio = (long) (SUBFAIXAS + posicao % SUBFAIXAS) << (expoente - BITS_SUBFAIXA);
+        return inicio + (1L << (expoente - BITS_SUBFAIXA)) - 1;
+    }
+
+    /**
+     * Valores de um histograma em um instante. Percentis em nanossegundos.
+     */
+    public static class Resumo {
+        private String nome;
+        private long[] contagens;
+        private long quantidade;
+        private long soma;
+        private long maximo;
+
+        Resumo(String nome, long[] contagens, long quantidade, long soma, long maximo) {
+            this.nome = nome;
+            this.contagens = contagens;
+            this.quantidade = quantidade;
+            this.soma = soma;
+            this.maximo = maximo;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public long getQuantidade() {
+            return quantidade;
+        }
+
+        public long getMaximo() {
+            return maximo;
+        }
+
+        public long getMedia() {
+            return quantidade == 0 ? 0 : soma / quantidade;
+        }
+
+        /**
+         * Valor abaixo do qual estão {@code percentual}% dos registros
+         * (ex.: 99 ou 99.9). Nunca passa do máximo registrado.
+         */
+        public long percentil(double percentual) {
+            if (quantidade == 0) {
+                return 0;
+            }
+            long alvo = Math.max(1, (long) Math.ceil(quantidade * percentual / 100.0));
+            long acumulado = 0;
+            for (int i = 0; i < contagens.length; i++) {
+                acumulado += contagens[i];
+                if (acumulado >= alvo) {
+                    return Math.min(limiteSuperior(i), maximo);
+                }
+            }
+            return maximo;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: n=%d | média=%s | p50=%s | p90=%s | p99=%s | p99.9=%s | máx=%s", nome,
+                    quantidade, formatarNanos(getMedia()), formatarNanos(percentil(50)),
+                    formatarNanos(percentil(90)), formatarNanos(percentil(99)), formatarNanos(percentil(99.9)),
+                    formatarNanos(maximo));
+        }
+
+        private static String formatarNanos(long nanos) {
+            if (nanos < 1_000) {
+                return nanos + "ns";
+            }
+            if (nanos < 1_000_000) {
+                return String.format("%.1fµs", nanos / 1e3);
+            }
+            if (nanos < 1_000_000_000) {
+                return String.format("%.1fms", nanos / 1e6);
+            }
+            return String.format("%.2fs", nanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package dominio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Importação em massa de arquivos grandes no formato ';' do sistema.
+ *
+ * O arquivo é dividido em blocos alinhados em fim de linha; cada bloco é
+ * mapeado em memória e interpretado em paralelo no {@link ForkJoinPool}
+ * comum, com um {@link LeitorRegistro} por bloco (sem regex, e números
+ * lidos direto dos bytes). Os blocos são incorporados na ordem do arquivo, à
+ * medida que ficam prontos, então o resultado é o mesmo de uma leitura
+ * sequencial. Linhas inválidas viram erros no {@link ResultadoImportacao}
+ * e não interrompem a importação.
+ *
+ * Formatos:
+ * <ul>
+ * <li>produtos: {@code codigo;nome;preco;tipo} (como produtos.txt)</li>
+ * <li>clientes: {@code PF;cpf;nome;email;conta;saldo} ou
+ * {@code PJ;cnpj;nome;email;razaoSocial;conta;saldo} (como clientes.txt)</li>
+ * <li>pedidos: {@code identificadorCliente;codigoProduto;quantidade[;codigoProduto;quantidade...]}</li>
+ * </ul>
+ */
+public class ImportadorCsv {
+    private static final long TAMANHO_BLOCO_MINIMO = 1L << 20;
+    /** Cada bloco é mapeado separadamente, então precisa caber em um int. */
+    private static final long TAMANHO_BLOCO_MAXIMO = 1L << 26;
+    /** Pedidos por chamada de {@link SistemaVendas#processarLote}. */
+    public static final int PEDIDOS_POR_LOTE = 1000;
+
+    private ImportadorCsv() {
+    }
+
+    /**
+     * Importa produtos para o repositório. Códigos já existentes são
+     * reportados como erro e mantêm o produto anterior.
+     */
+    public static ResultadoImportacao importarProdutos(String arquivo, Repositorio<Produto> destino)
+            throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        importar(arquivo, ImportadorCsv::decodificarProduto, (bloco, primeiraLinha) -> {
+            reservar(destino, bloco, arquivo);
+            for (int i = 0; i < bloco.itens.size(); i++) {
+                Produto p = bloco.itens.get(i);
+                if (destino.adicionar(String.valueOf(p.getCodigo()), p)) {
+                    resultado.somarImportado();
+                } else {
+                    resultado.registrarErro(primeiraLinha + bloco.linhasItens[i],
+                            "Código de produto já existe: " + p.getCodigo());
+                }
+            }
+        }, resultado);
+        return resultado;
+    }
+
+    /**
+     * Importa clientes PF/PJ (com suas contas) para o repositório.
+     */
+    public static ResultadoImportacao importarClientes(String arquivo, Repositorio<Cliente> destino)
+            throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        importar(arquivo, ImportadorCsv::decodificarCliente, (bloco, primeiraLinha) -> {
+            reservar(destino, bloco, arquivo);
+            for (int i = 0; i < bloco.itens.size(); i++) {
+                Cliente c = bloco.itens.get(i);
+                if (destino.adicionar(c.getIdentificador(), c)) {
+                    resultado.somarImportado();
+                } else {
+                    resultado.registrarErro(primeiraLinha + bloco.linhasItens[i],
+                            "Cliente já cadastrado: " + c.getIdentificador());
+                }
+            }
+        }, resultado);
+        return resultado;
+    }
+
+    /**
+     * Importa pedidos como vendas finalizadas, em lotes de
+     * {@link #PEDIDOS_POR_LOTE} via {@link SistemaVendas#processarLote}.
+     * Pedidos não finalizados (cliente/produto inexistente, saldo...) são
+     * reportados na linha correspondente.
+     */
+    public static ResultadoImportacao importarPedidos(String arquivo, SistemaVendas sistema) throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        importar(arquivo, ImportadorCsv::decodificarPedido, (bloco, primeiraLinha) -> {
+            for (int inicio = 0; inicio < bloco.itens.size(); inicio += PEDIDOS_POR_LOTE) {
+                int fim = Math.min(bloco.itens.size(), inicio + PEDIDOS_POR_LOTE);
+                List<ResultadoPedido> resultados = sistema.processarLote(bloco.itens.subList(inicio, fim));
+                for (int i = inicio; i < fim; i++) {
+                    ResultadoPedido r = resultados.get(i - inicio);
+                    if (r.isFinalizado()) {
+                        resultado.somarImportado();
+                    } else {
+                        resultado.registrarErro(primeiraLinha + bloco.linhasItens[i], "Pedido não finalizado: "
+                                + r.getSituacao());
+                    }
+                }
+            }
+        }, resultado);
+        return resultado;
+    }
+
+    // ========== DECODIFICAÇÃO DE LINHAS ==========
+
+    private static Produto decodificarProduto(LeitorRegistro linha) {
+        return linha.produto(0);
+    }
+
+    private static Cliente decodificarCliente(LeitorRegistro linha) {
+        Cliente cliente = linha.cliente();
+        if (cliente == null) {
+            throw new IllegalArgumentException("Tipo de cliente deve ser PF ou PJ");
+        }
+        return cliente;
+    }
+
+    private static PedidoVenda decodificarPedido(LeitorRegistro linha) {
+        if (linha.quantidadeCampos() < 3 || linha.quantidadeCampos() % 2 == 0) {
+            throw new IllegalArgumentException("Esperado cliente seguido de pares produto;quantidade");
+        }
+        PedidoVenda pedido = new PedidoVenda(linha.texto(0));
+        for (int campo = 1; campo < linha.quantidadeCampos(); campo += 2) {
+            pedido.adicionarItem(linha.inteiro(campo), linha.inteiro(campo + 1));
+        }
+        return pedido;
+    }
+
+    // ========== DIVISÃO E EXECUÇÃO ==========
+
+    @FunctionalInterface
+    private interface Decodificador<T> {
+        T decodificar(LeitorRegistro linha);
+    }
+
+    @FunctionalInterface
+    private interface Incorporacao<T> {
+        /**
+         * Incorpora um bloco já interpretado; chamado na ordem do arquivo.
+         *
+         * @param primeiraLinha número (a partir de 1) da primeira linha do bloco
+         */
+        void incorporar(Bloco<T> bloco, long primeiraLinha);
+    }
+
+    private static <T> void importar(String arquivo, Decodificador<T> decodificador, Incorporacao<T> incorporacao,
+            ResultadoImportacao resultado) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(arquivo), StandardOpenOption.READ)) {
+            long[] limites = limitesBlocos(canal);
+            List<TarefaBloco<T>> tarefas = new ArrayList<>(limites.length - 1);
+            for (int i = 0; i + 1 < limites.length; i++) {
+                TarefaBloco<T> tarefa = new TarefaBloco<>(canal, limites[i], limites[i + 1], decodificador);
+                ForkJoinPool.commonPool().execute(tarefa);
+                tarefas.add(tarefa);
+            }
+            long primeiraLinha = 1;
+            for (int i = 0; i < tarefas.size(); i++) {
+                Bloco<T> bloco;
+                try {
+                    bloco = tarefas.get(i).join();
+                } catch (RuntimeException e) {
+                    for (ForkJoinTask<?> t : tarefas) {
+                        t.cancel(true);
+                    }
+                    throw new IOException("Erro ao ler " + arquivo + ": " + e.getMessage(), e);
+                }
+                tarefas.set(i, null); // Libera o bloco depois de incorporado
+                for (int e = 0; e < bloco.quantidadeErros; e++) {
+                    resultado.registrarErro(primeiraLinha + bloco.linhasErros[e], bloco.mensagensErros.get(e));
+                }
+                incorporacao.incorporar(bloco, primeiraLinha);
+                resultado.somarLinhas(bloco.quantidadeLinhas);
+                primeiraLinha += bloco.quantidadeLinhas;
+            }
+        }
+    }
+
+    /**
+     * Posições de início dos blocos (e o tamanho do arquivo no fim), sempre
+     * logo após um '\n'. Blocos de ~tamanho/(4 x paralelismo), entre 1 MB e 64 MB.
+     */
+    private static long[] limitesBlocos(FileChannel canal) throws IOException {
+        long tamanho = canal.size();
+        long alvo = tamanho / (4L * Math.max(1, ForkJoinPool.getCommonPoolParallelism()));
+        alvo = Math.max(TAMANHO_BLOCO_MINIMO, Math.min(TAMANHO_BLOCO_MAXIMO, alvo));
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+        ByteBuffer leitura = ByteBuffer.allocate(8192);
+        long posicao = alvo;
+        while (posicao < tamanho) {
+            long quebra = proximaQuebra(canal, posicao, leitura);
+            if (quebra < 0 || quebra + 1 >= tamanho) {
+                break;
+            }
+            limites.add(quebra + 1);
+            posicao = quebra + 1 + alvo;
+        }
+        limites.add(tamanho);
+        long[] resultado = new long[limites.size()];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = limites.get(i);
+        }
+        return resultado;
+    }
+
+    private static long proximaQuebra(FileChannel canal, long posicao, ByteBuffer leitura) throws IOException {
+        while (true) {
+            leitura.clear();
+            int lidos = canal.read(leitura, posicao);
+            if (lidos <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < lidos; i++) {
+                if (leitura.get(i) == '\n') {
+                    return posicao + i;
+                }
+            }
+            posicao += lidos;
+        }
+    }
+
+    private static void reservar(Repositorio<?> destino, Bloco<?> bloco, String arquivo) {
+        // Estima o total de linhas pelo primeiro bloco (só tem efeito com o repositório vazio)
+        if (bloco.inicio == 0 && bloco.quantidadeLinhas > 0 && destino.tamanho() == 0) {
+            long tamanhoArquivo = new File(arquivo).length();
+            long porLinha = Math.max(1, bloco.tamanho / bloco.quantidadeLinhas);
+            destino.reservarCapacidade((int) Math.min(Integer.MAX_VALUE - 8, tamanhoArquivo / porLinha));
+        }
+    }
+
+    /**
+     * Resultado da interpretação de um bloco: itens válidos e erros, com as
+     * linhas relativas ao início do bloco (0 = primeira).
+     */
+    private static class Bloco<T> {
+        long inicio;
+        long tamanho;
+        int quantidadeLinhas;
+        List<T> itens = new ArrayList<>();
+        int[] linhasItens = new int[64];
+        int quantidadeErros;
+        int[] linhasErros = new int[4];
+        List<String> mensagensErros = new ArrayList<>();
+
+        void adicionar(T item, int linha) {
+            if (itens.size() == linhasItens.length) {
+                linhasItens = Arrays.copyOf(linhasItens, linhasItens.length * 2);
+            }
+            linhasItens[itens.size()] = linha;
+            itens.add(item);
+        }
+
+        void erro(int linha, String mensagem) {
+            if (quantidadeErros == linhasErros.length) {
+                linhasErros = Arrays.copyOf(linhasErros, linhasErros.length * 2);
+            }
+            linhasErros[quantidadeErros++] = linha;
+            mensagensErros.add(mensagem);
+        }
+    }
+
+    private static class TarefaBloco<T> extends RecursiveTask<Bloco<T>> {
+        private FileChannel canal;
+        private long inicio;
+        private long fim;
+        private Decodificador<T> decodificador;
+
+        TarefaBloco(FileChannel canal, long inicio, long fim, Decodificador<T> decodificador) {
+            this.canal = canal;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.decodificador = decodificador;
+        }
+
+        @Override
+        protected Bloco<T> compute() {
+            Bloco<T> bloco = new Bloco<>();
+            bloco.inicio = inicio;
+            bloco.tamanho = fim - inicio;
+            if (fim <= inicio) {
+                return bloco;
+            }
+            ByteBuffer buffer;
+            try {
+                buffer = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fim - inicio);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            LeitorRegistro linha = new LeitorRegistro();
+            int limite = buffer.limit();
+            int inicioLinha = 0;
+            int numero = 0;
+            while (inicioLinha < limite) {
+                int proxima = linha.separarLinha(buffer, inicioLinha, limite);
+                // O rodapé de checksum dos arquivos gravados pelo próprio sistema não é um registro
+                if (!linha.vazio() && !ArquivoSnapshot.rodape(linha)) {
+                    try {
+                        bloco.adicionar(decodificador.decodificar(linha), numero);
+                    } catch (RuntimeException e) {
+                        String conteudo = linha.linha();
+                        bloco.erro(numero, e.getMessage() + " ["
+                                + (conteudo.length() > 200 ? conteudo.substring(0, 200) : conteudo) + "]");
+                    }
+                }
+                numero++;
+                inicioLinha = proxima;
+            }
+            bloco.quantidadeLinhas = numero;
+            return bloco;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Índice por um campo enum (ex.: {@link TipoProduto}), com uma lista por
+ * constante em um {@link EnumMap} criado já completo.
+ */
+public class IndiceEnum<T, E extends Enum<E>> implements IndiceSecundario<T> {
+    private Function<? super T, E> campo;
+    private Map<E, List<T>> itens;
+
+    public IndiceEnum(Class<E> tipo, Function<? super T, E> campo) {
+        this.campo = campo;
+        this.itens = new EnumMap<>(tipo);
+        for (E constante : tipo.getEnumConstants()) {
+            itens.put(constante, new ArrayList<>());
+        }
+    }
+
+    @Override
+    public void indexar(T item) {
+        E valor = campo.apply(item);
+        if (valor != null) {
+            List<T> lista = itens.get(valor);
+            synchronized (lista) {
+                lista.add(item);
+            }
+        }
+    }
+
+    /**
+     * Itens com o valor informado, na ordem de inserção (cópia).
+     */
+    public List<T> buscar(E valor) {
+        List<T> lista = itens.get(valor);
+        synchronized (lista) {
+            return new ArrayList<>(lista);
+        }
+    }
+
+    public int contar(E valor) {
+        List<T> lista = itens.get(valor);
+        synchronized (lista) {
+            return lista.size();
+        }
+    }
+
+    @Override
+    public void limpar() {
+        for (List<T> lista : itens.values()) {
+            synchronized (lista) {
+                lista.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Índice por igualdade de uma chave extraída do item (ex.: email, razão
+ * social). Vários itens podem ter a mesma chave; itens com chave null não
+ * são indexados.
+ */
+public class IndiceHash<T, K> implements IndiceSecundario<T> {
+    private Function<? super T, ? extends K> chave;
+    private Map<K, List<T>> itens;
+
+    public IndiceHash(Function<? super T, ? extends K> chave) {
+        this.chave = chave;
+        this.itens = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void indexar(T item) {
+        K k = chave.apply(item);
+        if (k != null) {
+            List<T> lista = itens.computeIfAbsent(k, x -> new ArrayList<>(1));
+            synchronized (lista) {
+                lista.add(item);
+            }
+        }
+    }
+
+    /**
+     * Itens com a chave informada (cópia; lista vazia se nenhum).
+     */
+    public List<T> buscar(K k) {
+        List<T> lista = itens.get(k);
+        if (lista == null) {
+            return Collections.emptyList();
+        }
+        synchronized (lista) {
+            return new ArrayList<>(lista);
+        }
+    }
+
+    /**
+     * Primeiro item com a chave, ou null.
+     */
+    public T buscarPrimeiro(K k) {
+        List<T> lista = itens.get(k);
+        if (lista == null) {
+            return null;
+        }
+        synchronized (lista) {
+            return lista.isEmpty() ? null : lista.get(0);
+        }
+    }
+
+    @Override
+    public void limpar() {
+        itens.clear();
+    }
+
+    @Override
+    public void reservarCapacidade(int quantidade) {
+        if (itens.isEmpty()) {
+            this.itens = new ConcurrentHashMap<>(Math.max(16, quantidade));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Índice de chaves int para posições (int >= 0) com endereçamento aberto.
+ * Evita o boxing de Integer que um HashMap exigiria em cada consulta.
+ */
+public class IndiceInt {
+    private static final int VAZIO = -1;
+
+    private int[] chaves;
+    private int[] valores;
+    private int tamanho;
+    private int limite;
+
+    public IndiceInt() {
+        this(16);
+    }
+
+    public IndiceInt(int capacidadeEsperada) {
+        int capacidade = 16;
+        while (capacidade < capacidadeEsperada * 2) {
+            capacidade <<= 1;
+        }
+        alocar(capacidade);
+    }
+
+    /**
+     * Associa a chave a um valor (>= 0). Substitui o valor anterior se existir.
+     */
+    public void colocar(int chave, int valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("Valor do índice deve ser não negativo.");
+        }
+        if (tamanho >= limite) {
+            redimensionar();
+        }
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        while (valores[i] != VAZIO) {
+            if (chaves[i] == chave) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = chave;
+        valores[i] = valor;
+        tamanho++;
+    }
+
+    /**
+     * Retorna o valor associado à chave ou -1 se ela não existir.
+     */
+    public int buscar(int chave) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        int valor;
+        while ((valor = valores[i]) != VAZIO) {
+            if (chaves[i] == chave) {
+                return valor;
+            }
+            i = (i + 1) & mascara;
+        }
+        return VAZIO;
+    }
+
+    /**
+     * Remove a chave, se existir.
+     *
+     * @return valor que estava associado ou -1
+     */
+    public int remover(int chave) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        while (valores[i] != VAZIO) {
+            if (chaves[i] == chave) {
+                int valor = valores[i];
+                // Puxa para o buraco as chaves seguintes do agrupamento que
+                // poderiam estar nele, para as buscas não pararem antes delas
+                int buraco = i;
+                int j = (i + 1) & mascara;
+                while (valores[j] != VAZIO) {
+                    int ideal = espalhar(chaves[j]) & mascara;
+                    if (((j - ideal) & mascara) >= ((j - buraco) & mascara)) {
+                        chaves[buraco] = chaves[j];
+                        valores[buraco] = valores[j];
+                        buraco = j;
+                    }
+                    j = (j + 1) & mascara;
+                }
+                valores[buraco] = VAZIO;
+                tamanho--;
+                return valor;
+            }
+            i = (i + 1) & mascara;
+        }
+        return VAZIO;
+    }
+
+    public boolean contem(int chave) {
+        return buscar(chave) != VAZIO;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private void redimensionar() {
+        int[] chavesAntigas = chaves;
+        int[] valoresAntigos = valores;
+        alocar(chavesAntigas.length * 2);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (valoresAntigos[i] != VAZIO) {
+                colocar(chavesAntigas[i], valoresAntigos[i]);
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new int[capacidade];
+        valores = new int[capacidade];
+        Arrays.fill(valores, VAZIO);
+        tamanho = 0;
+        limite = capacidade / 2;
+    }
+
+    private static int espalhar(int chave) {
+        int h = chave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,77 @@
+package dominio;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Índice ordenado de um texto do item (ex.: nome) para busca por prefixo,
+ * usado no autocompletar. As chaves são normalizadas (minúsculas, sem
+ * acentos), então "jo" encontra "João". A busca percorre só o intervalo do
+ * prefixo no {@link ConcurrentSkipListMap}: O(log n + resultados).
+ */
+public class IndicePrefixo<T> implements IndiceSecundario<T> {
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private Function<? super T, String> texto;
+    private ConcurrentSkipListMap<String, List<T>> itens;
+
+    public IndicePrefixo(Function<? super T, String> texto) {
+        this.texto = texto;
+        this.itens = new ConcurrentSkipListMap<>();
+    }
+
+    @Override
+    public void indexar(T item) {
+        String valor = texto.apply(item);
+        if (valor != null) {
+            List<T> lista = itens.computeIfAbsent(normalizar(valor), x -> new ArrayList<>(1));
+            synchronized (lista) {
+                lista.add(item);
+            }
+        }
+    }
+
+    /**
+     * Até {@code limite} itens cujo texto começa com o prefixo, em ordem alfabética.
+     */
+    public List<T> buscarPrefixo(String prefixo, int limite) {
+        List<T> resultado = new ArrayList<>(Math.min(limite, 16));
+        String inicio = normalizar(prefixo);
+        for (Map.Entry<String, List<T>> entrada : itens.tailMap(inicio, true).entrySet()) {
+            if (resultado.size() >= limite || !entrada.getKey().startsWith(inicio)) {
+                break;
+            }
+            List<T> lista = entrada.getValue();
+            synchronized (lista) {
+                for (int i = 0; i < lista.size() && resultado.size() < limite; i++) {
+                    resultado.add(lista.get(i));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public void limpar() {
+        itens.clear();
+    }
+
+    static String normalizar(String texto) {
+        texto = texto.trim();
+        boolean ascii = true;
+        for (int i = 0; i < texto.length() && ascii; i++) {
+            ascii = texto.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return texto.toLowerCase(Locale.ROOT);
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT);
+    }
+}
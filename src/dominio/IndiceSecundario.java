@@ -0,0 +1,28 @@
+package dominio;
+
+/**
+ * Índice adicional de um {@link Repositorio}, mantido a cada
+ * {@link Repositorio#adicionar}. Implementações: {@link IndiceHash},
+ * {@link IndicePrefixo} e {@link IndiceEnum}.
+ *
+ * Os índices refletem os valores no momento da inserção; alterar um campo
+ * indexado depois (ex.: {@link Cliente#setEmail}) não atualiza o índice.
+ */
+public interface IndiceSecundario<T> {
+    /**
+     * Inclui o item no índice. Pode ser chamado por várias threads ao mesmo tempo.
+     */
+    void indexar(T item);
+
+    /**
+     * Remove todos os itens do índice.
+     */
+    void limpar();
+
+    /**
+     * Pré-dimensiona o índice para a quantidade esperada de itens (carga em
+     * massa). Só tem efeito com o índice vazio; por padrão não faz nada.
+     */
+    default void reservarCapacidade(int quantidade) {
+    }
+}
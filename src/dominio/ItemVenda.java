@@ -2,18 +2,43 @@ package dominio;
 
 /**
  * Representa um item dentro de uma venda: produto + quantidade.
+ * O preço unitário é o do produto no momento em que o item foi criado:
+ * mudar o preço do produto depois não altera vendas já feitas.
  */
 public class ItemVenda {
     private Produto produto;
     private int quantidade;
+    private long precoUnitario;
+    private long subtotal;
 
     public ItemVenda(Produto produto, int quantidade) {
+        this(produto, quantidade, produto.getPrecoCentavos());
+    }
+
+    /**
+     * Cria o item com um preço já registrado (ex.: ao reconstruir vendas do diário).
+     *
+     * @param precoUnitario preço unitário em centavos
+     */
+    public ItemVenda(Produto produto, int quantidade, long precoUnitario) {
         this.produto = produto;
         this.quantidade = quantidade;
+        this.precoUnitario = precoUnitario;
+        this.subtotal = Dinheiro.multiplicar(precoUnitario, quantidade);
+    }
+
+    /**
+     * Subtotal em centavos.
+     */
+    public long calcularSubtotal() {
+        return subtotal;
     }
 
-    public double calcularSubtotal() {
-        return produto.getPreco() * quantidade;
+    /**
+     * Preço unitário em centavos, registrado na criação do item.
+     */
+    public long getPrecoUnitario() {
+        return precoUnitario;
     }
 
     public Produto getProduto() {
@@ -23,4 +48,11 @@ public class ItemVenda {
     public int getQuantidade() {
         return quantidade;
     }
+
+    /**
+     * Mesmo produto e preço unitário, com outra quantidade.
+     */
+    public ItemVenda comQuantidade(int quantidade) {
+        return new ItemVenda(produto, quantidade, precoUnitario);
+    }
 }
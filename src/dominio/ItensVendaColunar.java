@@ -0,0 +1,343 @@
+package dominio;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Itens das vendas finalizadas em colunas de tipos primitivos: código da
+ * venda, código do produto, quantidade e preço unitário em centavos (o
+ * registrado no item). Sem um objeto por item, somas sobre milhões de
+ * itens são laços simples sobre vetores.
+ *
+ * As colunas são divididas em blocos de {@link #TAMANHO_BLOCO} posições, para
+ * crescer sem copiar tudo. Os itens de uma venda ficam em posições seguidas.
+ * Inclusões são sincronizadas; leituras veem tudo até o {@code tamanho} lido.
+ */
+public class ItensVendaColunar {
+    private static final int BITS_BLOCO = 14;
+    public static final int TAMANHO_BLOCO = 1 << BITS_BLOCO;
+    private static final int MASCARA_BLOCO = TAMANHO_BLOCO - 1;
+    /** Faixa máxima de códigos de produto somada em vetor direto (senão usa IndiceInt). */
+    private static final int LIMITE_FAIXA_DIRETA = 1 << 20;
+
+    private int[][] codigosVenda;
+    private int[][] codigosProduto;
+    private int[][] quantidades;
+    private long[][] precos;
+    private volatile int tamanho;
+    private int menorCodigoProduto = Integer.MAX_VALUE;
+    private int maiorCodigoProduto = Integer.MIN_VALUE;
+    // Código da venda -> posição do primeiro item; quantidade em itensPorVenda
+    private IndiceInt inicioPorVenda;
+    private IndiceInt itensPorVenda;
+
+    public ItensVendaColunar() {
+        this.codigosVenda = new int[0][];
+        this.codigosProduto = new int[0][];
+        this.quantidades = new int[0][];
+        this.precos = new long[0][];
+        this.inicioPorVenda = new IndiceInt();
+        this.itensPorVenda = new IndiceInt();
+    }
+
+    /**
+     * Colunas com os itens das vendas da lista.
+     */
+    public static ItensVendaColunar de(Collection<Venda> vendas) {
+        ItensVendaColunar itens = new ItensVendaColunar();
+        for (Venda venda : vendas) {
+            itens.registrar(venda);
+        }
+        return itens;
+    }
+
+    /**
+     * Copia os itens da venda para as colunas. Deve ser chamado uma vez por
+     * venda, depois de finalizada.
+     *
+     * @return posição do primeiro item da venda
+     */
+    public synchronized int registrar(Venda venda) {
+        int inicio = tamanho;
+        int posicao = inicio;
+        synchronized (venda) {
+            for (ItemVenda item : venda.getItens()) {
+                garantirCapacidade(posicao);
+                int bloco = posicao >>> BITS_BLOCO;
+                int i = posicao & MASCARA_BLOCO;
+                int codigoProduto = item.getProduto().getCodigo();
+                codigosVenda[bloco][i] = venda.getCodigo();
+                codigosProduto[bloco][i] = codigoProduto;
+                quantidades[bloco][i] = item.getQuantidade();
+                precos[bloco][i] = item.getPrecoUnitario();
+                menorCodigoProduto = Math.min(menorCodigoProduto, codigoProduto);
+                maiorCodigoProduto = Math.max(maiorCodigoProduto, codigoProduto);
+                posicao++;
+            }
+        }
+        inicioPorVenda.colocar(venda.getCodigo(), inicio);
+        itensPorVenda.colocar(venda.getCodigo(), posicao - inicio);
+        tamanho = posicao; // Publica os itens escritos acima
+        return inicio;
+    }
+
+    /** Quantidade de itens armazenados. */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public synchronized int quantidadeVendas() {
+        return inicioPorVenda.tamanho();
+    }
+
+    /** Se os itens da venda já estão nas colunas. */
+    public synchronized boolean contem(int codigoVenda) {
+        return inicioPorVenda.buscar(codigoVenda) >= 0;
+    }
+
+    /**
+     * Visão dos itens de uma venda armazenada, sem copiá-los: cada
+     * {@link ItemVenda} é criado na leitura a partir das colunas, com o preço registrado.
+     *
+     * @param produtos busca do produto pelo código
+     * @return null se a venda não estiver armazenada
+     */
+    public List<ItemVenda> itensDaVenda(int codigoVenda, IntFunction<Produto> produtos) {
+        int inicio;
+        int quantidade;
+        synchronized (this) {
+            inicio = inicioPorVenda.buscar(codigoVenda);
+            quantidade = itensPorVenda.buscar(codigoVenda);
+        }
+        return inicio < 0 ? null : new ItensDaVenda(inicio, quantidade, produtos);
+    }
+
+    /**
+     * Soma de quantidade x preço de todos os itens, em centavos.
+     */
+    public long valorTotal() {
+        int fim = tamanho;
+        long total = 0;
+        int blocos = (fim + MASCARA_BLOCO) >>> BITS_BLOCO;
+        for (int bloco = 0; bloco < blocos; bloco++) {
+            int[] q = quantidades[bloco];
+            long[] p = precos[bloco];
+            int limite = Math.min(TAMANHO_BLOCO, fim - (bloco << BITS_BLOCO));
+            for (int i = 0; i < limite; i++) {
+                total += q[i] * p[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Visita todos os itens na ordem em que foram registrados.
+     */
+    public void paraCadaItem(VisitanteItem visitante) {
+        int fim = tamanho;
+        for (int posicao = 0; posicao < fim; posicao++) {
+            int bloco = posicao >>> BITS_BLOCO;
+            int i = posicao & MASCARA_BLOCO;
+            visitante.visitar(codigosVenda[bloco][i], codigosProduto[bloco][i], quantidades[bloco][i],
+                    precos[bloco][i]);
+        }
+    }
+
+    /**
+     * Quantidade e valor vendidos por produto, somando todos os itens.
+     */
+    public SomaPorProduto somarPorProduto() {
+        int fim = tamanho;
+        SomaPorProduto soma = novaSoma();
+        soma.somar(this, 0, fim);
+        return soma;
+    }
+
+    /**
+     * Quantidade e valor vendidos por produto, só nas vendas informadas
+     * (códigos não armazenados são ignorados).
+     */
+    public SomaPorProduto somarPorProduto(int[] codigosVendas, int quantidadeVendas) {
+        int[] inicios = new int[quantidadeVendas];
+        int[] fins = new int[quantidadeVendas];
+        SomaPorProduto soma;
+        synchronized (this) {
+            for (int v = 0; v < quantidadeVendas; v++) {
+                int inicio = inicioPorVenda.buscar(codigosVendas[v]);
+                inicios[v] = inicio;
+                fins[v] = inicio < 0 ? inicio : inicio + itensPorVenda.buscar(codigosVendas[v]);
+            }
+            soma = novaSoma();
+        }
+        for (int v = 0; v < quantidadeVendas; v++) {
+            if (inicios[v] >= 0) {
+                soma.somar(this, inicios[v], fins[v]);
+            }
+        }
+        return soma;
+    }
+
+    // ========== AUXILIARES ==========
+
+    private synchronized SomaPorProduto novaSoma() {
+        if (tamanho > 0 && (long) maiorCodigoProduto - menorCodigoProduto < LIMITE_FAIXA_DIRETA) {
+            return new SomaPorProduto(menorCodigoProduto, maiorCodigoProduto - menorCodigoProduto + 1);
+        }
+        return new SomaPorProduto(0, 0);
+    }
+
+    private void garantirCapacidade(int posicao) {
+        if ((posicao & MASCARA_BLOCO) != 0) {
+            return;
+        }
+        int bloco = posicao >>> BITS_BLOCO;
+        if (bloco == codigosVenda.length) {
+            int blocos = Math.max(4, bloco * 2);
+            codigosVenda = Arrays.copyOf(codigosVenda, blocos);
+            codigosProduto = Arrays.copyOf(codigosProduto, blocos);
+            quantidades = Arrays.copyOf(quantidades, blocos);
+            precos = Arrays.copyOf(precos, blocos);
+        }
+        // Blocos são alocados só quando o primeiro item chega a eles
+        codigosVenda[bloco] = new int[TAMANHO_BLOCO];
+        codigosProduto[bloco] = new int[TAMANHO_BLOCO];
+        quantidades[bloco] = new int[TAMANHO_BLOCO];
+        precos[bloco] = new long[TAMANHO_BLOCO];
+    }
+
+    /**
+     * Itens de uma venda como lista somente leitura sobre as colunas.
+     */
+    private class ItensDaVenda extends AbstractList<ItemVenda> {
+        private int inicio;
+        private int quantidade;
+        private IntFunction<Produto> produtos;
+
+        ItensDaVenda(int inicio, int quantidade, IntFunction<Produto> produtos) {
+            this.inicio = inicio;
+            this.quantidade = quantidade;
+            this.produtos = produtos;
+        }
+
+        @Override
+        public ItemVenda get(int indice) {
+            if (indice < 0 || indice >= quantidade) {
+                throw new IndexOutOfBoundsException("Item " + indice + " de " + quantidade);
+            }
+            int posicao = inicio + indice;
+            int bloco = posicao >>> BITS_BLOCO;
+            int i = posicao & MASCARA_BLOCO;
+            return new ItemVenda(produtos.apply(codigosProduto[bloco][i]), quantidades[bloco][i],
+                    precos[bloco][i]);
+        }
+
+        @Override
+        public int size() {
+            return quantidade;
+        }
+    }
+
+    /**
+     * Recebe um item lido das colunas.
+     */
+    @FunctionalInterface
+    public interface VisitanteItem {
+        /**
+         * @param precoUnitario preço unitário em centavos
+         */
+        void visitar(int codigoVenda, int codigoProduto, int quantidade, long precoUnitario);
+    }
+
+    /**
+     * Quantidade e valor (centavos) por código de produto. Com códigos numa
+     * faixa pequena, soma direto em vetores indexados pelo código; senão,
+     * usa um {@link IndiceInt} de código para posição.
+     */
+    public static class SomaPorProduto {
+        private int menorCodigo;
+        private boolean direta;
+        private IndiceInt posicoes;
+        private int[] codigos;
+        private long[] quantidades;
+        private long[] valores;
+        private int produtos;
+
+        SomaPorProduto(int menorCodigo, int faixa) {
+            this.menorCodigo = menorCodigo;
+            this.direta = faixa > 0;
+            int capacidade = direta ? faixa : 16;
+            this.codigos = new int[capacidade];
+            this.quantidades = new long[capacidade];
+            this.valores = new long[capacidade];
+            if (!direta) {
+                this.posicoes = new IndiceInt();
+            }
+        }
+
+        void somar(ItensVendaColunar itens, int inicio, int fim) {
+            while (inicio < fim) {
+                int bloco = inicio >>> BITS_BLOCO;
+                int de = inicio & MASCARA_BLOCO;
+                int ate = Math.min(TAMANHO_BLOCO, de + (fim - inicio));
+                int[] c = itens.codigosProduto[bloco];
+                int[] q = itens.quantidades[bloco];
+                long[] p = itens.precos[bloco];
+                if (direta) {
+                    long[] qs = quantidades;
+                    long[] vs = valores;
+                    int base = menorCodigo;
+                    for (int i = de; i < ate; i++) {
+                        int posicao = c[i] - base;
+                        qs[posicao] += q[i];
+                        vs[posicao] += q[i] * p[i];
+                    }
+                } else {
+                    for (int i = de; i < ate; i++) {
+                        int posicao = posicao(c[i]);
+                        quantidades[posicao] += q[i];
+                        valores[posicao] += q[i] * p[i];
+                    }
+                }
+                inicio += ate - de;
+            }
+        }
+
+        private int posicao(int codigo) {
+            int posicao = posicoes.buscar(codigo);
+            if (posicao < 0) {
+                posicao = produtos++;
+                if (posicao == codigos.length) {
+                    codigos = Arrays.copyOf(codigos, posicao * 2);
+                    quantidades = Arrays.copyOf(quantidades, posicao * 2);
+                    valores = Arrays.copyOf(valores, posicao * 2);
+                }
+                codigos[posicao] = codigo;
+                posicoes.colocar(codigo, posicao);
+            }
+            return posicao;
+        }
+
+        /**
+         * Visita os produtos com alguma quantidade vendida.
+         */
+        public void paraCada(Visitante visitante) {
+            int limite = direta ? quantidades.length : produtos;
+            for (int i = 0; i < limite; i++) {
+                if (quantidades[i] != 0) {
+                    visitante.visitar(direta ? menorCodigo + i : codigos[i], quantidades[i], valores[i]);
+                }
+            }
+        }
+
+        /**
+         * Recebe os totais de um produto.
+         */
+        @FunctionalInterface
+        public interface Visitante {
+            void visitar(int codigoProduto, long quantidade, long valor);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package dominio;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cursor reutilizável sobre um registro no formato ';' dos arquivos do
+ * sistema (produtos.txt, clientes.txt, diário, importação). Guarda só as
+ * posições dos campos: números e valores são lidos direto da fonte, sem
+ * split, substring ou String intermediária; só os campos de texto que vão
+ * para os objetos (nome, e-mail, documento...) viram String.
+ *
+ * A fonte pode ser um CharSequence (ex.: uma linha do diário) ou um trecho
+ * de ByteBuffer com texto UTF-8 (ex.: arquivo lido ou mapeado em memória).
+ * O mesmo cursor deve ser reaproveitado em todas as linhas de uma carga.
+ * Não é thread-safe: use um por thread.
+ */
+public class LeitorRegistro {
+    private static final int MAXIMO_CAMPOS = 256;
+    private static final TipoProduto[] TIPOS = TipoProduto.values();
+
+    private CharSequence fonte;
+    private Bytes bytes;
+    // Vetor do buffer (quando acessível), lido direto nos laços de cada campo
+    private byte[] vetor;
+    private int deslocamento;
+    private int inicio;
+    private int fim;
+    private int[] inicios = new int[8];
+    private int[] fins = new int[8];
+    private int campos;
+
+    /**
+     * Separa a linha inteira em campos.
+     */
+    public LeitorRegistro separar(CharSequence linha) {
+        return separar(linha, 0, linha.length());
+    }
+
+    /**
+     * Separa o trecho [inicio, fim) do texto em campos (ex.: a linha sem o
+     * prefixo "PF;" ou "C;", sem criar a substring).
+     */
+    public LeitorRegistro separar(CharSequence texto, int inicio, int fim) {
+        this.fonte = texto;
+        this.vetor = null;
+        this.inicio = inicio;
+        this.fim = fim;
+        campos = 0;
+        int inicioCampo = inicio;
+        for (int i = inicio; i < fim; i++) {
+            if (texto.charAt(i) == ';') {
+                adicionarCampo(inicioCampo, i);
+                inicioCampo = i + 1;
+            }
+        }
+        adicionarCampo(inicioCampo, fim);
+        return this;
+    }
+
+    /**
+     * Separa os bytes [inicio, fim) do buffer (texto UTF-8, sem o '\n') em
+     * campos. As posições são absolutas; a posição do buffer não muda.
+     */
+    public LeitorRegistro separar(ByteBuffer buffer, int inicio, int fim) {
+        separarBytes(buffer, inicio, fim, false);
+        return this;
+    }
+
+    /**
+     * Separa a linha que começa em {@code inicio}, até o próximo '\n' ou
+     * {@code limite}, numa única passada pelos bytes (um '\r' no fim é
+     * ignorado).
+     *
+     * @return início da linha seguinte ({@code limite} se não houver)
+     */
+    public int separarLinha(ByteBuffer buffer, int inicio, int limite) {
+        int quebra = separarBytes(buffer, inicio, limite, true);
+        return quebra < limite ? quebra + 1 : limite;
+    }
+
+    public int quantidadeCampos() {
+        return campos;
+    }
+
+    public void exigirCampos(int quantidade) {
+        if (campos < quantidade) {
+            throw new IllegalArgumentException("Esperados " + quantidade + " campos, encontrados " + campos);
+        }
+    }
+
+    /**
+     * Indica se a linha só tem espaços e caracteres de controle (ou nada),
+     * como {@code String.trim().isEmpty()}.
+     */
+    public boolean vazio() {
+        for (int i = inicio; i < fim; i++) {
+            if (caractere(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Campo como String. */
+    public String texto(int campo) {
+        return fonte == bytes ? bytes.texto(inicios[campo], fins[campo])
+                : fonte.subSequence(inicios[campo], fins[campo]).toString();
+    }
+
+    /** Linha inteira como String (ex.: para mensagens de erro). */
+    public String linha() {
+        return fonte == bytes ? bytes.texto(inicio, fim) : fonte.subSequence(inicio, fim).toString();
+    }
+
+    /** Campo como int, lido direto da fonte (espaços nas pontas são ignorados). */
+    public int inteiro(int campo) {
+        long valor = inteiroLongo(campo);
+        if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Número grande demais no campo " + (campo + 1));
+        }
+        return (int) valor;
+    }
+
+    /** Campo como long, lido direto da fonte (espaços nas pontas são ignorados). */
+    public long inteiroLongo(int campo) {
+        int i = inicios[campo];
+        int f = fins[campo];
+        while (i < f && caractere(i) == ' ') {
+            i++;
+        }
+        while (f > i && caractere(f - 1) == ' ') {
+            f--;
+        }
+        boolean negativo = i < f && caractere(i) == '-';
+        if (negativo) {
+            i++;
+        }
+        if (i == f) {
+            throw new NumberFormatException("Número vazio no campo " + (campo + 1));
+        }
+        long valor = 0;
+        for (; i < f; i++) {
+            int digito = caractere(i) - '0';
+            if (digito < 0 || digito > 9) {
+                throw new NumberFormatException("Número inválido no campo " + (campo + 1));
+            }
+            // Acumula negativo: cabe até Long.MIN_VALUE
+            if (valor < (Long.MIN_VALUE + digito) / 10) {
+                throw new NumberFormatException("Número grande demais no campo " + (campo + 1));
+            }
+            valor = valor * 10 - digito;
+        }
+        if (!negativo && valor == Long.MIN_VALUE) {
+            throw new NumberFormatException("Número grande demais no campo " + (campo + 1));
+        }
+        return negativo ? valor : -valor;
+    }
+
+    /** Campo monetário em centavos, com ponto ou vírgula (ver {@link Dinheiro#parse}). */
+    public long centavos(int campo) {
+        return Dinheiro.parse(fonte, inicios[campo], fins[campo]);
+    }
+
+    /** Compara o campo com um texto ASCII, sem criar String. */
+    public boolean igual(int campo, String ascii) {
+        int tamanho = fins[campo] - inicios[campo];
+        if (tamanho != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            if (caractere(inicios[campo] + i) != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ========== OBJETOS DO DOMÍNIO ==========
+
+    /**
+     * Produto a partir de {@code codigo;nome;preco;tipo}, começando no campo informado.
+     */
+    public Produto produto(int primeiroCampo) {
+        exigirCampos(primeiroCampo + 4);
+        int campoTipo = primeiroCampo + 3;
+        TipoProduto tipo = null;
+        for (TipoProduto t : TIPOS) {
+            if (igual(campoTipo, t.name())) {
+                tipo = t;
+            }
+        }
+        if (tipo == null) {
+            throw new IllegalArgumentException("Tipo de produto inválido: " + texto(campoTipo));
+        }
+        return new Produto(inteiro(primeiroCampo), texto(primeiroCampo + 1), centavos(primeiroCampo + 2), tipo);
+    }
+
+    /**
+     * Conta a partir de {@code numero;saldo}, começando no campo informado.
+     */
+    public Conta conta(int primeiroCampo) {
+        exigirCampos(primeiroCampo + 2);
+        Conta conta = new Conta(inteiro(primeiroCampo));
+        conta.definirSaldo(centavos(primeiroCampo + 1));
+        return conta;
+    }
+
+    /**
+     * ClientePF a partir de {@code cpf;nome;email;conta;saldo}, começando no campo informado.
+     */
+    public ClientePF clientePF(int primeiroCampo) {
+        exigirCampos(primeiroCampo + 5);
+        Conta conta = conta(primeiroCampo + 3);
+        return new ClientePF(texto(primeiroCampo + 1), texto(primeiroCampo + 2), conta, texto(primeiroCampo));
+    }
+
+    /**
+     * ClientePJ a partir de {@code cnpj;nome;email;razaoSocial;conta;saldo}, começando no campo informado.
+     */
+    public ClientePJ clientePJ(int primeiroCampo) {
+        exigirCampos(primeiroCampo + 6);
+        Conta conta = conta(primeiroCampo + 4);
+        return new ClientePJ(texto(primeiroCampo + 1), texto(primeiroCampo + 2), conta, texto(primeiroCampo),
+                texto(primeiroCampo + 3));
+    }
+
+    /**
+     * Cliente de uma linha de clientes.txt (com prefixo PF ou PJ no primeiro campo).
+     *
+     * @return null se o prefixo for desconhecido
+     */
+    public Cliente cliente() {
+        if (igual(0, "PF")) {
+            return clientePF(1);
+        } else if (igual(0, "PJ")) {
+            return clientePJ(1);
+        }
+        return null;
+    }
+
+    // ========== AUXILIARES ==========
+
+    /**
+     * @return posição do '\n' que encerrou a linha, ou {@code fim}
+     */
+    private int separarBytes(ByteBuffer buffer, int inicio, int fim, boolean pararNaQuebra) {
+        if (bytes == null) {
+            bytes = new Bytes();
+        }
+        bytes.usar(buffer);
+        this.fonte = bytes;
+        this.vetor = bytes.vetor;
+        this.deslocamento = bytes.deslocamento;
+        campos = 0;
+        int inicioCampo = inicio;
+        int i = inicio;
+        // ';' e '\n' não aparecem dentro de caracteres UTF-8 de vários bytes
+        if (vetor != null) {
+            byte[] v = vetor;
+            int d = deslocamento;
+            for (; i < fim; i++) {
+                byte b = v[i + d];
+                if (b == ';') {
+                    adicionarCampo(inicioCampo, i);
+                    inicioCampo = i + 1;
+                } else if (b == '\n' && pararNaQuebra) {
+                    break;
+                }
+            }
+        } else {
+            for (; i < fim; i++) {
+                byte b = buffer.get(i);
+                if (b == ';') {
+                    adicionarCampo(inicioCampo, i);
+                    inicioCampo = i + 1;
+                } else if (b == '\n' && pararNaQuebra) {
+                    break;
+                }
+            }
+        }
+        int fimLinha = pararNaQuebra && i > inicioCampo && caractere(i - 1) == '\r' ? i - 1 : i;
+        adicionarCampo(inicioCampo, fimLinha);
+        this.inicio = inicio;
+        this.fim = fimLinha;
+        return i;
+    }
+
+    private char caractere(int indice) {
+        return vetor != null ? (char) (vetor[indice + deslocamento] & 0xFF) : fonte.charAt(indice);
+    }
+
+    private void adicionarCampo(int inicioCampo, int fimCampo) {
+        if (campos == inicios.length) {
+            if (campos == MAXIMO_CAMPOS) {
+                throw new IllegalArgumentException("Campos demais na linha");
+            }
+            inicios = Arrays.copyOf(inicios, campos * 2);
+            fins = Arrays.copyOf(fins, campos * 2);
+        }
+        inicios[campos] = inicioCampo;
+        fins[campos] = fimCampo;
+        campos++;
+    }
+
+    /**
+     * Bytes do buffer como CharSequence (cada byte um char), para ler números
+     * e valores com o mesmo código da fonte de texto.
+     */
+    private static class Bytes implements CharSequence {
+        private ByteBuffer buffer;
+        private byte[] vetor;
+        private int deslocamento;
+        private byte[] copia = new byte[64];
+
+        void usar(ByteBuffer novo) {
+            if (novo != buffer) {
+                buffer = novo;
+                boolean acessivel = novo.hasArray();
+                vetor = acessivel ? novo.array() : null;
+                deslocamento = acessivel ? novo.arrayOffset() : 0;
+            }
+        }
+
+        /** Trecho decodificado como UTF-8. */
+        String texto(int inicio, int fim) {
+            int tamanho = fim - inicio;
+            if (vetor != null) {
+                return new String(vetor, deslocamento + inicio, tamanho, StandardCharsets.UTF_8);
+            }
+            if (copia.length < tamanho) {
+                copia = new byte[Math.max(tamanho, copia.length * 2)];
+            }
+            buffer.get(inicio, copia, 0, tamanho);
+            return new String(copia, 0, tamanho, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int indice) {
+            return (char) ((vetor != null ? vetor[indice + deslocamento] : buffer.get(indice)) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int inicio, int fim) {
+            return texto(inicio, fim);
+        }
+    }
+}
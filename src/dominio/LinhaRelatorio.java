@@ -0,0 +1,22 @@
+package dominio;
+
+/**
+ * Linha de relatório que sabe se descrever campo a campo, para ser exportada
+ * (CSV, JSON lines) sem montar estruturas intermediárias.
+ */
+public interface LinhaRelatorio {
+    /** Envia os campos da linha, sempre na mesma ordem. */
+    void escrever(Campos campos);
+
+    /**
+     * Recebe os campos de uma linha conforme o tipo de valor.
+     */
+    interface Campos {
+        void texto(String nome, String valor);
+
+        void inteiro(String nome, long valor);
+
+        /** Valor monetário em centavos. */
+        void dinheiro(String nome, long centavos);
+    }
+}
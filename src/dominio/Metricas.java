@@ -0,0 +1,166 @@
+package dominio;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores e histogramas de latência nomeados, para acompanhar o sistema
+ * em produção. Quem mede guarda a referência ao histograma/contador e só
+ * incrementa; a leitura é feita por {@link #instantaneo()} ou pelo
+ * despejo periódico em arquivo.
+ */
+public class Metricas {
+    // Latências (SistemaVendas)
+    public static final String INICIAR_VENDA = "iniciarNovaVenda";
+    public static final String ADICIONAR_ITEM = "adicionarItemAVenda";
+    public static final String FINALIZAR_VENDA = "finalizarVenda";
+    public static final String PROCESSAR_LOTE = "processarLote";
+    public static final String CARREGAR_DADOS = "carregarDados";
+    public static final String SALVAR_DADOS = "salvarDados";
+    /** Prefixo das latências de cada relatório (ex.: "relatorio.gerarResumo"). */
+    public static final String PREFIXO_RELATORIO = "relatorio.";
+
+    // Contadores
+    public static final String VENDAS = "vendas";
+    public static final String ITENS = "itens";
+    public static final String SALDO_INSUFICIENTE = "saldoInsuficiente";
+    public static final String VENDAS_CANCELADAS = "vendasCanceladas";
+
+    private Map<String, HistogramaLatencia> histogramas;
+    private Map<String, LongAdder> contadores;
+    private ScheduledExecutorService despejo;
+
+    public Metricas() {
+        this.histogramas = new ConcurrentHashMap<>();
+        this.contadores = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Histograma com o nome, criado na primeira chamada.
+     */
+    public HistogramaLatencia histograma(String nome) {
+        return histogramas.computeIfAbsent(nome, HistogramaLatencia::new);
+    }
+
+    /**
+     * Contador com o nome, criado na primeira chamada.
+     */
+    public LongAdder contador(String nome) {
+        return contadores.computeIfAbsent(nome, n -> new LongAdder());
+    }
+
+    /**
+     * Valores de todos os contadores e histogramas neste momento.
+     */
+    public Instantaneo instantaneo() {
+        Map<String, Long> valores = new TreeMap<>();
+        contadores.forEach((nome, contador) -> valores.put(nome, contador.sum()));
+        Map<String, HistogramaLatencia.Resumo> resumos = new TreeMap<>();
+        histogramas.forEach((nome, histograma) -> resumos.put(nome, histograma.resumir()));
+        return new Instantaneo(LocalDateTime.now(), valores, resumos);
+    }
+
+    /**
+     * Zera contadores e histogramas (ex.: após um aquecimento).
+     */
+    public void zerar() {
+        contadores.values().forEach(LongAdder::reset);
+        histogramas.values().forEach(HistogramaLatencia::zerar);
+    }
+
+    /**
+     * Acrescenta o instantâneo atual ao fim do arquivo.
+     */
+    public void gravar(String arquivo) throws IOException {
+        Files.write(Paths.get(arquivo), instantaneo().toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Acrescenta um instantâneo ao arquivo a cada {@code intervaloMs}, em uma
+     * thread própria, até {@link #pararDespejo()}. Substitui um despejo anterior.
+     */
+    public synchronized void iniciarDespejo(String arquivo, long intervaloMs) {
+        pararDespejo();
+        despejo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas");
+            t.setDaemon(true);
+            return t;
+        });
+        despejo.scheduleAtFixedRate(() -> {
+            try {
+                gravar(arquivo);
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar métricas: " + e.getMessage());
+            }
+        }, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void pararDespejo() {
+        if (despejo != null) {
+            despejo.shutdownNow();
+            despejo = null;
+        }
+    }
+
+    /**
+     * Contadores e resumos dos histogramas em um instante, ordenados por nome.
+     */
+    public static class Instantaneo {
+        private LocalDateTime momento;
+        private Map<String, Long> contadores;
+        private Map<String, HistogramaLatencia.Resumo> latencias;
+
+        Instantaneo(LocalDateTime momento, Map<String, Long> contadores,
+                Map<String, HistogramaLatencia.Resumo> latencias) {
+            this.momento = momento;
+            this.contadores = Collections.unmodifiableMap(contadores);
+            this.latencias = Collections.unmodifiableMap(latencias);
+        }
+
+        public LocalDateTime getMomento() {
+            return momento;
+        }
+
+        public Map<String, Long> getContadores() {
+            return contadores;
+        }
+
+        public long getContador(String nome) {
+            return contadores.getOrDefault(nome, 0L);
+        }
+
+        public Map<String, HistogramaLatencia.Resumo> getLatencias() {
+            return latencias;
+        }
+
+        public HistogramaLatencia.Resumo getLatencia(String nome) {
+            return latencias.get(nome);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== Métricas ").append(momento).append(" ===\n");
+            contadores.forEach((nome, valor) -> sb.append(nome).append(": ").append(valor).append('\n'));
+            for (HistogramaLatencia.Resumo resumo : latencias.values()) {
+                if (resumo.getQuantidade() > 0) {
+                    sb.append(resumo).append('\n');
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Pedido a ser processado em lote por {@link SistemaVendas#processarLote}:
+ * identificador do cliente e itens (código do produto e quantidade).
+ * Os itens ficam em arrays primitivos, sem um objeto por item.
+ */
+public class PedidoVenda {
+    private String identificadorCliente;
+    private int[] codigosProduto;
+    private int[] quantidades;
+    private int quantidadeItens;
+
+    public PedidoVenda(String identificadorCliente) {
+        this.identificadorCliente = identificadorCliente;
+        this.codigosProduto = new int[4];
+        this.quantidades = new int[4];
+    }
+
+    public PedidoVenda adicionarItem(int codigoProduto, int quantidade) {
+        if (quantidadeItens == codigosProduto.length) {
+            codigosProduto = Arrays.copyOf(codigosProduto, quantidadeItens * 2);
+            quantidades = Arrays.copyOf(quantidades, quantidadeItens * 2);
+        }
+        codigosProduto[quantidadeItens] = codigoProduto;
+        quantidades[quantidadeItens] = quantidade;
+        quantidadeItens++;
+        return this;
+    }
+
+    public String getIdentificadorCliente() {
+        return identificadorCliente;
+    }
+
+    public int getQuantidadeItens() {
+        return quantidadeItens;
+    }
+
+    public int getCodigoProduto(int item) {
+        return codigosProduto[item];
+    }
+
+    public int getQuantidade(int item) {
+        return quantidades[item];
+    }
+}
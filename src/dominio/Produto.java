@@ -2,38 +2,38 @@ package dominio;
 
 /**
  * Modelo de produto contendo código, nome, preço e tipo.
+ * O preço é guardado em centavos (ver {@link Dinheiro}).
  */
 public class Produto implements Persistivel {
     private int codigo;
     private String nome;
-    private double preco;
+    private long precoCentavos;
     private TipoProduto tipo;
 
-    public Produto(int codigo, String nome, double preco, TipoProduto tipo) {
+    public Produto(int codigo, String nome, long precoCentavos, TipoProduto tipo) {
         this.codigo = codigo;
         this.nome = nome;
-        this.preco = preco;
+        this.precoCentavos = precoCentavos;
         this.tipo = tipo;
     }
 
     @Override
     public String toLineString() {
-        return String.format(java.util.Locale.US,"%d;%s;%.2f;%s",
-                this.codigo,
-                this.nome,
-                this.preco,
-                // name tipo string (%s)
-                this.tipo.name());
-    }
-
+        StringBuilder sb = new StringBuilder(32 + nome.length());
+        sb.append(this.codigo).append(';')
+                .append(this.nome).append(';');
+        Dinheiro.formatar(this.precoCentavos, sb).append(';')
+                // name tipo string
+                .append(this.tipo.name());
+        return sb.toString();
+    }
+
+    /**
+     * Constrói um Produto a partir de uma linha do arquivo. Cargas em massa
+     * devem reaproveitar um {@link LeitorRegistro} em vez de chamar este método.
+     */
     public static Produto fromString(String linha) {
-        String[] partes = linha.split(";");
-        int codigo = Integer.parseInt(partes[0]);
-        String nome = partes[1];
-        double preco = Double.parseDouble(partes[2].replace(",","."));
-        TipoProduto tipoProduto = TipoProduto.valueOf(partes[3]);
-        Produto produto = new Produto(codigo, nome, preco, tipoProduto);
-        return produto;
+        return new LeitorRegistro().separar(linha).produto(0);
     }
 
     public String getNome() {
@@ -44,15 +44,18 @@ public class Produto implements Persistivel {
         return codigo;
     }
 
-    public double getPreco() {
-        return preco;
+    /**
+     * Preço em centavos.
+     */
+    public long getPrecoCentavos() {
+        return precoCentavos;
     }
 
     public TipoProduto getTipo() {
         return tipo;
     }
 
-    public void setPreco(double preco) {
-        this.preco = preco;
+    public void setPrecoCentavos(long precoCentavos) {
+        this.precoCentavos = precoCentavos;
     }
 }
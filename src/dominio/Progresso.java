@@ -0,0 +1,19 @@
+package dominio;
+
+/**
+ * Recebe o andamento de operações longas (carregar, salvar, relatórios).
+ * Pode ser chamado de qualquer thread: quem atualiza a interface gráfica
+ * deve repassar para a thread do Swing.
+ */
+@FunctionalInterface
+public interface Progresso {
+    /** Implementação que ignora as atualizações. */
+    Progresso NENHUM = (etapa, percentual) -> {
+    };
+
+    /**
+     * @param etapa      descrição curta do passo atual
+     * @param percentual de 0 a 100
+     */
+    void atualizar(String etapa, int percentual);
+}
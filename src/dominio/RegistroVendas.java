@@ -0,0 +1,174 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Armazena as vendas separadas por estado: as finalizadas em ordem de
+ * finalização (usada nos relatórios, sem precisar testar o estado de cada
+ * uma) e as abertas num mapa pequeno, em ordem de início. Vendas canceladas
+ * são removidas. Um índice por código dá busca em tempo constante.
+ * O índice é dividido em segmentos com travas próprias, para que terminais
+ * diferentes consultem suas vendas sem disputar a mesma trava.
+ */
+public class RegistroVendas {
+    private static final int SEGMENTOS = 16;
+
+    private List<Venda> finalizadas;
+    private Map<Integer, Venda> abertas;
+    private Segmento[] segmentos;
+
+    public RegistroVendas() {
+        this.finalizadas = new ArrayList<>();
+        this.abertas = new LinkedHashMap<>();
+        this.segmentos = new Segmento[SEGMENTOS];
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento();
+        }
+    }
+
+    /**
+     * Adiciona a venda se ainda não houver outra com o mesmo código. Vai para
+     * as finalizadas se já estiver finalizada; senão, para as abertas.
+     */
+    public boolean adicionar(Venda venda) {
+        if (!segmentoDe(venda.getCodigo()).adicionar(venda)) {
+            return false;
+        }
+        if (venda.isFinalizada()) {
+            synchronized (finalizadas) {
+                finalizadas.add(venda);
+            }
+        } else {
+            synchronized (abertas) {
+                abertas.put(venda.getCodigo(), venda);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move uma venda aberta que acabou de ser finalizada para as finalizadas.
+     */
+    public void finalizar(Venda venda) {
+        synchronized (abertas) {
+            abertas.remove(venda.getCodigo());
+        }
+        synchronized (finalizadas) {
+            finalizadas.add(venda);
+        }
+    }
+
+    /**
+     * Remove uma venda aberta (ex.: cancelada).
+     *
+     * @return false se a venda não estava entre as abertas
+     */
+    public boolean remover(Venda venda) {
+        synchronized (abertas) {
+            if (abertas.remove(venda.getCodigo()) == null) {
+                return false;
+            }
+        }
+        segmentoDe(venda.getCodigo()).remover(venda.getCodigo());
+        return true;
+    }
+
+    /**
+     * Busca a venda pelo código, ou null se não existir.
+     */
+    public Venda buscar(int codigo) {
+        return segmentoDe(codigo).buscar(codigo);
+    }
+
+    public int tamanho() {
+        return quantidadeFinalizadas() + quantidadeAbertas();
+    }
+
+    public int quantidadeFinalizadas() {
+        synchronized (finalizadas) {
+            return finalizadas.size();
+        }
+    }
+
+    public int quantidadeAbertas() {
+        synchronized (abertas) {
+            return abertas.size();
+        }
+    }
+
+    /**
+     * Cópia de todas as vendas: finalizadas (em ordem de finalização) e
+     * depois as abertas.
+     */
+    public List<Venda> listar() {
+        List<Venda> todas;
+        synchronized (finalizadas) {
+            todas = new ArrayList<>(finalizadas.size() + abertas.size());
+            todas.addAll(finalizadas);
+        }
+        synchronized (abertas) {
+            todas.addAll(abertas.values());
+        }
+        return todas;
+    }
+
+    /**
+     * Cópia das vendas finalizadas, em ordem de finalização.
+     */
+    public List<Venda> listarFinalizadas() {
+        synchronized (finalizadas) {
+            return new ArrayList<>(finalizadas);
+        }
+    }
+
+    /**
+     * Cópia das vendas abertas, em ordem de início.
+     */
+    public List<Venda> listarAbertas() {
+        synchronized (abertas) {
+            return new ArrayList<>(abertas.values());
+        }
+    }
+
+    private Segmento segmentoDe(int codigo) {
+        return segmentos[codigo & (SEGMENTOS - 1)];
+    }
+
+    /**
+     * Parte do índice protegida por uma única trava.
+     */
+    private static class Segmento {
+        private IndiceInt indicePorCodigo = new IndiceInt();
+        private List<Venda> vendas = new ArrayList<>();
+
+        synchronized boolean adicionar(Venda venda) {
+            if (indicePorCodigo.contem(venda.getCodigo())) {
+                return false;
+            }
+            indicePorCodigo.colocar(venda.getCodigo(), vendas.size());
+            vendas.add(venda);
+            return true;
+        }
+
+        synchronized Venda buscar(int codigo) {
+            int posicao = indicePorCodigo.buscar(codigo);
+            return posicao < 0 ? null : vendas.get(posicao);
+        }
+
+        // A última venda do segmento ocupa o lugar da removida
+        synchronized void remover(int codigo) {
+            int posicao = indicePorCodigo.remover(codigo);
+            if (posicao < 0) {
+                return;
+            }
+            Venda ultima = vendas.remove(vendas.size() - 1);
+            if (posicao < vendas.size()) {
+                vendas.set(posicao, ultima);
+                indicePorCodigo.colocar(ultima.getCodigo(), posicao);
+            }
+        }
+    }
+}
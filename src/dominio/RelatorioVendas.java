@@ -1,6 +1,14 @@
 package dominio;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -9,21 +17,97 @@ import java.util.stream.Collectors;
  * clientes que mais compram e operações de monetização.
  */
 public class RelatorioVendas {
-    private List<Venda> vendas;
+    private AgregadosVendas agregados;
+    private VendasPorPeriodo periodos;
+    private ItensVendaColunar itens;
+    private IntFunction<Venda> vendaPorCodigo; // Sem colunas de itens: vendas lidas uma a uma
+    private IntFunction<Produto> produtoPorCodigo;
     private List<Cliente> clientes;
     private List<Produto> produtos;
+    private Metricas metricas;
+    private ForkJoinPool pool; // null: relatórios sequenciais
 
     /**
      * Cria um relatório de vendas com base nas vendas e dados do sistema.
+     * Os totais são calculados uma única vez a partir da lista de vendas.
      *
      * @param vendas   lista de vendas realizadas
      * @param clientes lista de clientes cadastrados
      * @param produtos lista de produtos cadastrados
      */
     public RelatorioVendas(List<Venda> vendas, List<Cliente> clientes, List<Produto> produtos) {
-        this.vendas = vendas != null ? vendas : new ArrayList<>();
+        this(AgregadosVendas.de(vendas != null ? vendas : new ArrayList<>()),
+                VendasPorPeriodo.de(vendas != null ? vendas : new ArrayList<>()),
+                ItensVendaColunar.de(vendas != null ? vendas : new ArrayList<>()), clientes, produtos, null);
+    }
+
+    /**
+     * Igual ao anterior, em modo paralelo: os totais são montados por blocos
+     * de vendas no {@code pool} e as ordenações e filtros dos relatórios
+     * também rodam nele. Os resultados são idênticos aos do modo sequencial,
+     * inclusive a ordem dos empates.
+     *
+     * @param pool threads usadas (ex.: {@code new ForkJoinPool(32)}), ou null para o modo sequencial
+     */
+    public RelatorioVendas(List<Venda> vendas, List<Cliente> clientes, List<Produto> produtos, ForkJoinPool pool) {
+        List<Venda> lista = vendas != null ? vendas : new ArrayList<>();
+        if (pool != null) {
+            // Partições por dia e colunas de itens são montadas junto com os totais
+            ForkJoinTask<VendasPorPeriodo> periodos = pool.submit(() -> VendasPorPeriodo.de(lista));
+            ForkJoinTask<ItensVendaColunar> itens = pool.submit(() -> ItensVendaColunar.de(lista));
+            this.agregados = AgregadosVendas.de(lista, pool);
+            this.periodos = periodos.join();
+            this.itens = itens.join();
+        } else {
+            this.agregados = AgregadosVendas.de(lista);
+            this.periodos = VendasPorPeriodo.de(lista);
+            this.itens = ItensVendaColunar.de(lista);
+        }
+        this.clientes = clientes != null ? clientes : new ArrayList<>();
+        this.produtos = produtos != null ? produtos : new ArrayList<>();
+        this.produtoPorCodigo = porCodigo(this.produtos);
+        this.pool = pool;
+    }
+
+    /**
+     * Cria um relatório que lê totais já mantidos incrementalmente.
+     *
+     * @param agregados totais das vendas finalizadas
+     * @param clientes  lista de clientes cadastrados
+     * @param produtos  lista de produtos cadastrados
+     */
+    public RelatorioVendas(AgregadosVendas agregados, List<Cliente> clientes, List<Produto> produtos) {
+        this(agregados, null, null, clientes, produtos, null);
+    }
+
+    /**
+     * Igual ao anterior, com as vendas particionadas por dia e os itens em
+     * colunas (relatórios por período), registrando a latência de cada
+     * relatório em {@code metricas} (com o prefixo {@link Metricas#PREFIXO_RELATORIO}).
+     */
+    public RelatorioVendas(AgregadosVendas agregados, VendasPorPeriodo periodos, ItensVendaColunar itens,
+            List<Cliente> clientes, List<Produto> produtos, Metricas metricas) {
+        this(agregados, periodos, itens, null, null, clientes, produtos, metricas);
+    }
+
+    /**
+     * Igual ao anterior; sem as colunas de itens ({@code itens} null), os
+     * relatórios por período somam os itens das próprias vendas, buscadas
+     * pelo código com {@code vendaPorCodigo}. Os produtos dos relatórios por
+     * período são buscados com {@code produtoPorCodigo} (ex.: o índice do
+     * repositório); null monta um mapa da lista de produtos.
+     */
+    public RelatorioVendas(AgregadosVendas agregados, VendasPorPeriodo periodos, ItensVendaColunar itens,
+            IntFunction<Venda> vendaPorCodigo, IntFunction<Produto> produtoPorCodigo, List<Cliente> clientes,
+            List<Produto> produtos, Metricas metricas) {
+        this.metricas = metricas;
+        this.periodos = periodos != null ? periodos : new VendasPorPeriodo();
+        this.itens = itens != null || vendaPorCodigo != null ? itens : new ItensVendaColunar();
+        this.vendaPorCodigo = vendaPorCodigo;
+        this.agregados = agregados != null ? agregados : new AgregadosVendas();
         this.clientes = clientes != null ? clientes : new ArrayList<>();
         this.produtos = produtos != null ? produtos : new ArrayList<>();
+        this.produtoPorCodigo = produtoPorCodigo != null ? produtoPorCodigo : porCodigo(this.produtos);
     }
 
     /**
@@ -32,25 +116,21 @@ public class RelatorioVendas {
      * @return mapa com código do produto e seus dados de venda
      */
     public Map<String, ProdutoVendidoInfo> relatorioProdurosVendidos() {
-        Map<String, ProdutoVendidoInfo> produtosVendidos = new LinkedHashMap<>();
-        for (Venda venda : vendas) {
-            for (ItemVenda item : venda.getItens()) {
-                Produto p = item.getProduto();
-                String chave = p.getCodigo() + " - " + p.getNome();
-
-                produtosVendidos.putIfAbsent(chave,
-                        new ProdutoVendidoInfo(p.getCodigo(), p.getNome(), p.getPreco(), p.getTipo()));
-
-                ProdutoVendidoInfo info = produtosVendidos.get(chave);
-                info.adicionarVenda(item.getQuantidade(), item.calcularSubtotal());
+        long inicio = System.nanoTime();
+        try {
+            List<AgregadosVendas.ContadorProduto> contadores = ordenar(agregados.getProdutos(),
+                    Comparator.comparingLong(AgregadosVendas.ContadorProduto::getValor).reversed()
+                            .thenComparingLong(AgregadosVendas.ContadorProduto::getOrdem));
+
+            Map<String, ProdutoVendidoInfo> produtosVendidos = new LinkedHashMap<>();
+            for (AgregadosVendas.ContadorProduto contador : contadores) {
+                Produto p = contador.getProduto();
+                produtosVendidos.put(p.getCodigo() + " - " + p.getNome(), infoProduto(contador));
             }
+            return produtosVendidos;
+        } finally {
+            medir("produtosVendidos", inicio);
         }
-
-        return produtosVendidos.entrySet()
-                .stream()
-                .sorted((a, b) -> Double.compare(b.getValue().getValorTotal(), a.getValue().getValorTotal()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1,
-                        LinkedHashMap::new));
     }
 
     /**
@@ -60,10 +140,18 @@ public class RelatorioVendas {
      * @return lista de vendas do cliente com detalhes
      */
     public List<VendaClienteInfo> relatorioComprasCliente(String identificadorCliente) {
-        return vendas.stream()
-                .filter(v -> v.getCliente().getIdentificador().equals(identificadorCliente))
-                .map(v -> new VendaClienteInfo(v))
-                .collect(Collectors.toList());
+        long inicio = System.nanoTime();
+        try {
+            AgregadosVendas.ContadorCliente contador = agregados.getCliente(identificadorCliente);
+            if (contador == null) {
+                return new ArrayList<>();
+            }
+            return contador.getVendas().stream()
+                    .map(v -> new VendaClienteInfo(v))
+                    .collect(Collectors.toList());
+        } finally {
+            medir("comprasCliente", inicio);
+        }
     }
 
     /**
@@ -72,57 +160,45 @@ public class RelatorioVendas {
      * @return lista de clientes ordenada por gasto total (descendente)
      */
     public List<ClienteMaisCompraInfo> relatorioClientesMaisCompram() {
-        Map<String, ClienteMaisCompraInfo> clientesMap = new LinkedHashMap<>();
-
-        for (Venda venda : vendas) {
-            Cliente cliente = venda.getCliente();
-            String id = cliente.getIdentificador();
-
-            clientesMap.putIfAbsent(id, new ClienteMaisCompraInfo(
-                    cliente.getIdentificador(),
-                    cliente.getNome(),
-                    cliente instanceof ClientePF ? "PF" : "PJ"));
-
-            ClienteMaisCompraInfo info = clientesMap.get(id);
-            info.adicionarVenda(venda.calcularTotal(), venda.getItens().size());
+        long inicio = System.nanoTime();
+        try {
+            List<AgregadosVendas.ContadorCliente> contadores = ordenar(agregados.getClientes(),
+                    Comparator.comparingLong(AgregadosVendas.ContadorCliente::getGasto).reversed()
+                            .thenComparingLong(AgregadosVendas.ContadorCliente::getOrdem));
+
+            List<ClienteMaisCompraInfo> ranking = new ArrayList<>(contadores.size());
+            for (AgregadosVendas.ContadorCliente contador : contadores) {
+                ranking.add(infoCliente(contador));
+            }
+            return ranking;
+        } finally {
+            medir("clientesMaisCompram", inicio);
         }
-
-        return clientesMap.values()
-                .stream()
-                .sorted((a, b) -> Double.compare(b.getGastoTotal(), a.getGastoTotal()))
-                .collect(Collectors.toList());
     }
 
     /**
      * Retorna ranking dos clientes mais ativos em operações de monetização
-     * (análise de movimentação de conta: depósitos, débitos).
+     * (análise de movimentação de conta: depósitos, débitos e transferências).
+     * Lê os contadores do extrato de cada conta, sem percorrer as vendas.
      *
      * @return lista de clientes ordenada por movimentação (descendente)
      */
     public List<ClienteMovimentacaoInfo> relatorioClientesMovimentacao() {
-        Map<String, ClienteMovimentacaoInfo> clientesMap = new LinkedHashMap<>();
+        long inicio = System.nanoTime();
+        try {
+            Map<String, ClienteMovimentacaoInfo> clientesMap = new LinkedHashMap<>();
 
-        for (Cliente cliente : clientes) {
-            String id = cliente.getIdentificador();
-            double saldoAtual = cliente.getConta().getSaldo();
-
-            // Conta número de vendas do cliente (cada venda = movimentação de débito)
-            long quantidadeVendas = vendas.stream()
-                    .filter(v -> v.getCliente().getIdentificador().equals(id))
-                    .count();
+            for (Cliente cliente : clientes) {
+                clientesMap.put(cliente.getIdentificador(), infoMovimentacao(cliente));
+            }
 
-            clientesMap.put(id, new ClienteMovimentacaoInfo(
-                    id,
-                    cliente.getNome(),
-                    cliente instanceof ClientePF ? "PF" : "PJ",
-                    saldoAtual,
-                    quantidadeVendas));
+            return clientesMap.values()
+                    .stream()
+                    .sorted((a, b) -> Long.compare(b.getQuantidadeOperacoes(), a.getQuantidadeOperacoes()))
+                    .collect(Collectors.toList());
+        } finally {
+            medir("clientesMovimentacao", inicio);
         }
-
-        return clientesMap.values()
-                .stream()
-                .sorted((a, b) -> Long.compare(b.getQuantidadeOperacoes(), a.getQuantidadeOperacoes()))
-                .collect(Collectors.toList());
     }
 
     /**
@@ -131,14 +207,19 @@ public class RelatorioVendas {
      * @return objeto com estatísticas gerais
      */
     public ResumoVendas gerarResumo() {
-        double totalVendas = vendas.stream().mapToDouble(Venda::calcularTotal).sum();
-        int quantidadeVendas = vendas.size();
-        int quantidadeClientes = clientes.size();
-        int quantidadeProdutos = produtos.size();
-        double mediaPorVenda = quantidadeVendas > 0 ? totalVendas / quantidadeVendas : 0;
-
-        return new ResumoVendas(totalVendas, quantidadeVendas, quantidadeClientes, quantidadeProdutos,
-                mediaPorVenda);
+        long inicio = System.nanoTime();
+        try {
+            long totalVendas = agregados.getValorTotal();
+            int quantidadeVendas = agregados.getQuantidadeVendas();
+            int quantidadeClientes = clientes.size();
+            int quantidadeProdutos = produtos.size();
+            long mediaPorVenda = Dinheiro.dividir(totalVendas, quantidadeVendas);
+
+            return new ResumoVendas(totalVendas, quantidadeVendas, quantidadeClientes, quantidadeProdutos,
+                    mediaPorVenda);
+        } finally {
+            medir("resumo", inicio);
+        }
     }
 
     /**
@@ -147,14 +228,267 @@ public class RelatorioVendas {
      * @return lista de produtos que não aparecem em nenhuma venda
      */
     public List<Produto> relatorioProdurosNaoVendidos() {
-        Set<Integer> codigosProdutosVendidos = vendas.stream()
-                .flatMap(v -> v.getItens().stream())
-                .map(item -> item.getProduto().getCodigo())
-                .collect(Collectors.toSet());
+        long inicio = System.nanoTime();
+        try {
+            if (pool != null) {
+                // Fluxo paralelo sobre lista mantém a ordem dos produtos
+                return pool.submit(() -> produtos.parallelStream()
+                        .filter(p -> !agregados.produtoVendido(p.getCodigo()))
+                        .collect(Collectors.toList())).join();
+            }
+            return produtos.stream()
+                    .filter(p -> !agregados.produtoVendido(p.getCodigo()))
+                    .collect(Collectors.toList());
+        } finally {
+            medir("produtosNaoVendidos", inicio);
+        }
+    }
+
+    /**
+     * Receita de cada dia com vendas entre {@code inicio} e {@code fim}, inclusive.
+     * Usa os totais de cada partição diária, sem ler as vendas.
+     */
+    public List<ReceitaPeriodoInfo> relatorioReceitaDiaria(LocalDate inicio, LocalDate fim) {
+        long inicioMedicao = System.nanoTime();
+        try {
+            List<ReceitaPeriodoInfo> receitas = new ArrayList<>();
+            periodos.totaisPorDia(inicio, fim).forEach((dia, totais) ->
+                    receitas.add(new ReceitaPeriodoInfo(dia.toString(), totais)));
+            return receitas;
+        } finally {
+            medir("receitaDiaria", inicioMedicao);
+        }
+    }
 
-        return produtos.stream()
-                .filter(p -> !codigosProdutosVendidos.contains(p.getCodigo()))
-                .collect(Collectors.toList());
+    /**
+     * Receita de cada mês com vendas entre {@code inicio} e {@code fim}, inclusive.
+     */
+    public List<ReceitaPeriodoInfo> relatorioReceitaMensal(LocalDate inicio, LocalDate fim) {
+        long inicioMedicao = System.nanoTime();
+        try {
+            List<ReceitaPeriodoInfo> receitas = new ArrayList<>();
+            for (Map.Entry<YearMonth, VendasPorPeriodo.Totais> mes : periodos.totaisPorMes(inicio, fim).entrySet()) {
+                receitas.add(new ReceitaPeriodoInfo(mes.getKey().toString(), mes.getValue()));
+            }
+            return receitas;
+        } finally {
+            medir("receitaMensal", inicioMedicao);
+        }
+    }
+
+    /**
+     * Produtos vendidos nas vendas com data entre {@code inicio} e {@code fim},
+     * inclusive, ordenados por valor (descendente). Lê só as partições do
+     * período e soma os itens direto nas colunas (ou, sem elas, nos itens
+     * das vendas do período).
+     */
+    public List<ProdutoVendidoInfo> relatorioProdutosVendidosNoPeriodo(LocalDate inicio, LocalDate fim) {
+        long inicioMedicao = System.nanoTime();
+        try {
+            int[] codigos = periodos.codigosDasVendas(inicio, fim);
+            List<ProdutoVendidoInfo> vendidos = new ArrayList<>();
+            ItensVendaColunar fonte = itens != null ? itens : itensDasVendas(codigos);
+            fonte.somarPorProduto(codigos, codigos.length).paraCada((codigoProduto, qtd, valor) -> {
+                Produto p = produtoPorCodigo.apply(codigoProduto);
+                // Produto que não está mais no catálogo: sem nome, preço nem tipo
+                ProdutoVendidoInfo info = p != null
+                        ? new ProdutoVendidoInfo(codigoProduto, p.getNome(), p.getPrecoCentavos(), p.getTipo())
+                        : new ProdutoVendidoInfo(codigoProduto, "?", 0, null);
+                info.adicionarVenda((int) Math.min(Integer.MAX_VALUE, qtd), valor);
+                vendidos.add(info);
+            });
+            vendidos.sort(Comparator.comparingLong(ProdutoVendidoInfo::getValorTotal).reversed()
+                    .thenComparingInt(ProdutoVendidoInfo::getCodigo));
+            return vendidos;
+        } finally {
+            medir("produtosVendidosNoPeriodo", inicioMedicao);
+        }
+    }
+
+    private static IntFunction<Produto> porCodigo(List<Produto> produtos) {
+        Map<Integer, Produto> mapa = new HashMap<>();
+        for (Produto p : produtos) {
+            mapa.put(p.getCodigo(), p);
+        }
+        return mapa::get;
+    }
+
+    /**
+     * Colunas temporárias só com os itens das vendas informadas.
+     */
+    private ItensVendaColunar itensDasVendas(int[] codigos) {
+        List<Venda> doPeriodo = new ArrayList<>(codigos.length);
+        for (int codigo : codigos) {
+            Venda venda = vendaPorCodigo.apply(codigo);
+            if (venda != null) {
+                doPeriodo.add(venda);
+            }
+        }
+        return ItensVendaColunar.de(doPeriodo);
+    }
+
+    // ========== EXPORTAÇÃO EM FLUXO ==========
+
+    /**
+     * Envia cada produto vendido ao destino, um por vez e sem ordenação,
+     * com memória constante (ex.: {@link ExportadorRelatorio}).
+     */
+    public void exportarProdutosVendidos(Consumer<? super ProdutoVendidoInfo> destino) {
+        for (AgregadosVendas.ContadorProduto contador : agregados.getProdutos()) {
+            destino.accept(infoProduto(contador));
+        }
+    }
+
+    /**
+     * Os n produtos de maior valor vendido, na mesma ordem de
+     * {@link #relatorioProdurosVendidos()}, usando um heap limitado a n.
+     */
+    public List<ProdutoVendidoInfo> topProdutosVendidos(int n) {
+        long inicio = System.nanoTime();
+        try {
+            return maioresN(agregados.getProdutos(), n, AgregadosVendas.ContadorProduto::getValor,
+                    AgregadosVendas.ContadorProduto::getOrdem, RelatorioVendas::infoProduto);
+        } finally {
+            medir("topProdutosVendidos", inicio);
+        }
+    }
+
+    /**
+     * Envia as vendas do cliente ao destino em blocos, sem montar a lista inteira.
+     */
+    public void exportarComprasCliente(String identificadorCliente, Consumer<? super VendaClienteInfo> destino) {
+        AgregadosVendas.ContadorCliente contador = agregados.getCliente(identificadorCliente);
+        if (contador != null) {
+            contador.paraCadaVenda(v -> destino.accept(new VendaClienteInfo(v)));
+        }
+    }
+
+    /**
+     * Envia o gasto de cada cliente ao destino, sem ordenação.
+     */
+    public void exportarClientesMaisCompram(Consumer<? super ClienteMaisCompraInfo> destino) {
+        for (AgregadosVendas.ContadorCliente contador : agregados.getClientes()) {
+            destino.accept(infoCliente(contador));
+        }
+    }
+
+    /**
+     * Os n clientes que mais gastaram, na mesma ordem de
+     * {@link #relatorioClientesMaisCompram()}, usando um heap limitado a n.
+     */
+    public List<ClienteMaisCompraInfo> topClientesMaisCompram(int n) {
+        long inicio = System.nanoTime();
+        try {
+            return maioresN(agregados.getClientes(), n, AgregadosVendas.ContadorCliente::getGasto,
+                    AgregadosVendas.ContadorCliente::getOrdem, RelatorioVendas::infoCliente);
+        } finally {
+            medir("topClientesMaisCompram", inicio);
+        }
+    }
+
+    /**
+     * Envia a movimentação de cada cliente ao destino, na ordem de cadastro.
+     */
+    public void exportarClientesMovimentacao(Consumer<? super ClienteMovimentacaoInfo> destino) {
+        for (Cliente cliente : clientes) {
+            destino.accept(infoMovimentacao(cliente));
+        }
+    }
+
+    /**
+     * Cópia ordenada dos contadores; em modo paralelo a ordenação roda no pool.
+     * O critério sempre desempata pela ordem, então o resultado é o mesmo.
+     */
+    private <C> List<C> ordenar(Collection<C> contadores, Comparator<? super C> criterio) {
+        if (pool != null) {
+            return pool.submit(() -> contadores.parallelStream().sorted(criterio).collect(Collectors.toList()))
+                    .join();
+        }
+        List<C> ordenados = new ArrayList<>(contadores);
+        ordenados.sort(criterio);
+        return ordenados;
+    }
+
+    private void medir(String relatorio, long inicio) {
+        if (metricas != null) {
+            metricas.histograma(Metricas.PREFIXO_RELATORIO + relatorio).registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * Seleciona os n maiores por valor (desempate: menor ordem) com um heap
+     * de tamanho n cujo topo é o pior candidato. O(m log n) em vez de O(m log m).
+     */
+    private static <C, R> List<R> maioresN(Collection<C> contadores, int n, ToLongFunction<C> valor,
+            ToLongFunction<C> ordem, Function<C, R> linha) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+        Comparator<long[]> piorPrimeiro = (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]);
+        PriorityQueue<long[]> heap = new PriorityQueue<>(n, piorPrimeiro);
+        Map<Long, C> porOrdem = new HashMap<>();
+        for (C contador : contadores) {
+            long[] candidato = { valor.applyAsLong(contador), ordem.applyAsLong(contador) };
+            if (heap.size() < n) {
+                heap.add(candidato);
+                porOrdem.put(candidato[1], contador);
+            } else if (piorPrimeiro.compare(candidato, heap.peek()) > 0) {
+                porOrdem.remove(heap.poll()[1]);
+                heap.add(candidato);
+                porOrdem.put(candidato[1], contador);
+            }
+        }
+        List<R> resultado = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            resultado.add(linha.apply(porOrdem.get(heap.poll()[1])));
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    private static ProdutoVendidoInfo infoProduto(AgregadosVendas.ContadorProduto contador) {
+        Produto p = contador.getProduto();
+        ProdutoVendidoInfo info = new ProdutoVendidoInfo(p.getCodigo(), p.getNome(), p.getPrecoCentavos(),
+                p.getTipo());
+        info.adicionarVenda(contador.getQuantidade(), contador.getValor());
+        return info;
+    }
+
+    private static ClienteMaisCompraInfo infoCliente(AgregadosVendas.ContadorCliente contador) {
+        Cliente cliente = contador.getCliente();
+        return new ClienteMaisCompraInfo(
+                cliente.getIdentificador(),
+                cliente.getNome(),
+                cliente instanceof ClientePF ? "PF" : "PJ",
+                contador.getGasto(),
+                contador.getQuantidadeCompras());
+    }
+
+    private ClienteMovimentacaoInfo infoMovimentacao(Cliente cliente) {
+        Conta conta = cliente.getConta();
+        long quantidadeEntradas = 0;
+        long valorEntradas = 0;
+        long quantidadeSaidas = 0;
+        long valorSaidas = 0;
+        for (ExtratoConta.TipoMovimento tipo : ExtratoConta.TipoMovimento.values()) {
+            if (tipo.isEntrada()) {
+                quantidadeEntradas += conta.quantidadeMovimentos(tipo);
+                valorEntradas += conta.valorMovimentado(tipo);
+            } else {
+                quantidadeSaidas += conta.quantidadeMovimentos(tipo);
+                valorSaidas += conta.valorMovimentado(tipo);
+            }
+        }
+        return new ClienteMovimentacaoInfo(
+                cliente.getIdentificador(),
+                cliente.getNome(),
+                cliente instanceof ClientePF ? "PF" : "PJ",
+                conta.getSaldoCentavos(),
+                quantidadeEntradas + quantidadeSaidas,
+                quantidadeEntradas,
+                valorEntradas,
+                quantidadeSaidas,
+                valorSaidas);
     }
 
     // ========== CLASSES INTERNAS PARA INFORMAÇÕES ==========
@@ -162,24 +496,24 @@ public class RelatorioVendas {
     /**
      * Informação sobre um produto vendido.
      */
-    public static class ProdutoVendidoInfo {
+    public static class ProdutoVendidoInfo implements LinhaRelatorio {
         private int codigo;
         private String nome;
-        private double preco;
+        private long preco;
         private TipoProduto tipo;
         private int quantidadeVendida;
-        private double valorTotal;
+        private long valorTotal;
 
-        public ProdutoVendidoInfo(int codigo, String nome, double preco, TipoProduto tipo) {
+        public ProdutoVendidoInfo(int codigo, String nome, long preco, TipoProduto tipo) {
             this.codigo = codigo;
             this.nome = nome;
             this.preco = preco;
             this.tipo = tipo;
             this.quantidadeVendida = 0;
-            this.valorTotal = 0.0;
+            this.valorTotal = 0;
         }
 
-        public void adicionarVenda(int quantidade, double valor) {
+        public void adicionarVenda(int quantidade, long valor) {
             this.quantidadeVendida += quantidade;
             this.valorTotal += valor;
         }
@@ -192,7 +526,8 @@ public class RelatorioVendas {
             return nome;
         }
 
-        public double getPreco() {
+        /** Preço em centavos. */
+        public long getPreco() {
             return preco;
         }
 
@@ -204,24 +539,35 @@ public class RelatorioVendas {
             return quantidadeVendida;
         }
 
-        public double getValorTotal() {
+        /** Valor total vendido em centavos. */
+        public long getValorTotal() {
             return valorTotal;
         }
 
+        @Override
+        public void escrever(Campos campos) {
+            campos.inteiro("codigo", codigo);
+            campos.texto("nome", nome);
+            campos.dinheiro("preco", preco);
+            campos.texto("tipo", tipo != null ? tipo.name() : "");
+            campos.inteiro("quantidade_vendida", quantidadeVendida);
+            campos.dinheiro("valor_total", valorTotal);
+        }
+
         @Override
         public String toString() {
-            return String.format("Produto: %s (Cod: %d) | Qtd: %d | Valor Total: R$ %.2f",
-                    nome, codigo, quantidadeVendida, valorTotal);
+            return String.format("Produto: %s (Cod: %d) | Qtd: %d | Valor Total: R$ %s",
+                    nome, codigo, quantidadeVendida, Dinheiro.formatar(valorTotal));
         }
     }
 
     /**
      * Informação sobre uma venda de um cliente.
      */
-    public static class VendaClienteInfo {
+    public static class VendaClienteInfo implements LinhaRelatorio {
         private int codigoVenda;
         private Date data;
-        private double total;
+        private long total;
         private int quantidadeItens;
 
         public VendaClienteInfo(Venda venda) {
@@ -239,7 +585,8 @@ public class RelatorioVendas {
             return data;
         }
 
-        public double getTotal() {
+        /** Total em centavos. */
+        public long getTotal() {
             return total;
         }
 
@@ -247,32 +594,45 @@ public class RelatorioVendas {
             return quantidadeItens;
         }
 
+        @Override
+        public void escrever(Campos campos) {
+            campos.inteiro("codigo_venda", codigoVenda);
+            campos.inteiro("data", data.getTime());
+            campos.dinheiro("total", total);
+            campos.inteiro("quantidade_itens", quantidadeItens);
+        }
+
         @Override
         public String toString() {
-            return String.format("Venda #%d | Data: %s | Total: R$ %.2f | Itens: %d",
-                    codigoVenda, data, total, quantidadeItens);
+            return String.format("Venda #%d | Data: %s | Total: R$ %s | Itens: %d",
+                    codigoVenda, data, Dinheiro.formatar(total), quantidadeItens);
         }
     }
 
     /**
      * Informação sobre cliente com histórico de compras.
      */
-    public static class ClienteMaisCompraInfo {
+    public static class ClienteMaisCompraInfo implements LinhaRelatorio {
         private String identificador;
         private String nome;
         private String tipo;
-        private double gastoTotal;
+        private long gastoTotal;
         private int quantidadeCompras;
 
         public ClienteMaisCompraInfo(String identificador, String nome, String tipo) {
+            this(identificador, nome, tipo, 0, 0);
+        }
+
+        public ClienteMaisCompraInfo(String identificador, String nome, String tipo,
+                long gastoTotal, int quantidadeCompras) {
             this.identificador = identificador;
             this.nome = nome;
             this.tipo = tipo;
-            this.gastoTotal = 0.0;
-            this.quantidadeCompras = 0;
+            this.gastoTotal = gastoTotal;
+            this.quantidadeCompras = quantidadeCompras;
         }
 
-        public void adicionarVenda(double valor, int quantidadeItens) {
+        public void adicionarVenda(long valor, int quantidadeItens) {
             this.gastoTotal += valor;
             this.quantidadeCompras++;
         }
@@ -289,7 +649,8 @@ public class RelatorioVendas {
             return tipo;
         }
 
-        public double getGastoTotal() {
+        /** Gasto total em centavos. */
+        public long getGastoTotal() {
             return gastoTotal;
         }
 
@@ -297,34 +658,59 @@ public class RelatorioVendas {
             return quantidadeCompras;
         }
 
-        public double getTicketMedio() {
-            return quantidadeCompras > 0 ? gastoTotal / quantidadeCompras : 0;
+        /** Ticket médio em centavos. */
+        public long getTicketMedio() {
+            return Dinheiro.dividir(gastoTotal, quantidadeCompras);
+        }
+
+        @Override
+        public void escrever(Campos campos) {
+            campos.texto("identificador", identificador);
+            campos.texto("nome", nome);
+            campos.texto("tipo", tipo);
+            campos.dinheiro("gasto_total", gastoTotal);
+            campos.inteiro("quantidade_compras", quantidadeCompras);
+            campos.dinheiro("ticket_medio", getTicketMedio());
         }
 
         @Override
         public String toString() {
-            return String.format("%s (%s) | ID: %s | Gasto Total: R$ %.2f | Qtd Compras: %d | Ticket Médio: R$ %.2f",
-                    nome, tipo, identificador, gastoTotal, quantidadeCompras, getTicketMedio());
+            return String.format("%s (%s) | ID: %s | Gasto Total: R$ %s | Qtd Compras: %d | Ticket Médio: R$ %s",
+                    nome, tipo, identificador, Dinheiro.formatar(gastoTotal), quantidadeCompras,
+                    Dinheiro.formatar(getTicketMedio()));
         }
     }
 
     /**
      * Informação sobre movimentação de conta do cliente.
      */
-    public static class ClienteMovimentacaoInfo {
+    public static class ClienteMovimentacaoInfo implements LinhaRelatorio {
         private String identificador;
         private String nome;
         private String tipo;
-        private double saldoAtual;
+        private long saldoAtual;
         private long quantidadeOperacoes;
-
+        private long quantidadeEntradas;
+        private long valorEntradas;
+        private long quantidadeSaidas;
+        private long valorSaidas;
+
+        /**
+         * Entradas são depósitos e transferências recebidas; saídas são
+         * débitos de vendas e transferências enviadas. Valores em centavos.
+         */
         public ClienteMovimentacaoInfo(String identificador, String nome, String tipo,
-                double saldoAtual, long quantidadeOperacoes) {
+                long saldoAtual, long quantidadeOperacoes, long quantidadeEntradas, long valorEntradas,
+                long quantidadeSaidas, long valorSaidas) {
             this.identificador = identificador;
             this.nome = nome;
             this.tipo = tipo;
             this.saldoAtual = saldoAtual;
             this.quantidadeOperacoes = quantidadeOperacoes;
+            this.quantidadeEntradas = quantidadeEntradas;
+            this.valorEntradas = valorEntradas;
+            this.quantidadeSaidas = quantidadeSaidas;
+            this.valorSaidas = valorSaidas;
         }
 
         public String getIdentificador() {
@@ -339,7 +725,8 @@ public class RelatorioVendas {
             return tipo;
         }
 
-        public double getSaldoAtual() {
+        /** Saldo em centavos. */
+        public long getSaldoAtual() {
             return saldoAtual;
         }
 
@@ -347,10 +734,90 @@ public class RelatorioVendas {
             return quantidadeOperacoes;
         }
 
+        public long getQuantidadeEntradas() {
+            return quantidadeEntradas;
+        }
+
+        /** Total de entradas em centavos. */
+        public long getValorEntradas() {
+            return valorEntradas;
+        }
+
+        public long getQuantidadeSaidas() {
+            return quantidadeSaidas;
+        }
+
+        /** Total de saídas em centavos. */
+        public long getValorSaidas() {
+            return valorSaidas;
+        }
+
+        @Override
+        public void escrever(Campos campos) {
+            campos.texto("identificador", identificador);
+            campos.texto("nome", nome);
+            campos.texto("tipo", tipo);
+            campos.dinheiro("saldo", saldoAtual);
+            campos.inteiro("quantidade_operacoes", quantidadeOperacoes);
+            campos.inteiro("entradas", quantidadeEntradas);
+            campos.dinheiro("valor_entradas", valorEntradas);
+            campos.inteiro("saidas", quantidadeSaidas);
+            campos.dinheiro("valor_saidas", valorSaidas);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s) | ID: %s | Saldo: R$ %s | Operações: %d | Entradas: %d (R$ %s) | Saídas: %d (R$ %s)",
+                    nome, tipo, identificador, Dinheiro.formatar(saldoAtual), quantidadeOperacoes,
+                    quantidadeEntradas, Dinheiro.formatar(valorEntradas),
+                    quantidadeSaidas, Dinheiro.formatar(valorSaidas));
+        }
+    }
+
+    /**
+     * Receita de um período (dia "AAAA-MM-DD" ou mês "AAAA-MM").
+     */
+    public static class ReceitaPeriodoInfo implements LinhaRelatorio {
+        private String periodo;
+        private long quantidadeVendas;
+        private long valorTotal;
+
+        public ReceitaPeriodoInfo(String periodo, VendasPorPeriodo.Totais totais) {
+            this.periodo = periodo;
+            this.quantidadeVendas = totais.getQuantidadeVendas();
+            this.valorTotal = totais.getValorTotal();
+        }
+
+        public String getPeriodo() {
+            return periodo;
+        }
+
+        public long getQuantidadeVendas() {
+            return quantidadeVendas;
+        }
+
+        /** Receita em centavos. */
+        public long getValorTotal() {
+            return valorTotal;
+        }
+
+        /** Valor médio por venda em centavos. */
+        public long getMediaPorVenda() {
+            return Dinheiro.dividir(valorTotal, quantidadeVendas);
+        }
+
+        @Override
+        public void escrever(Campos campos) {
+            campos.texto("periodo", periodo);
+            campos.inteiro("quantidade_vendas", quantidadeVendas);
+            campos.dinheiro("valor_total", valorTotal);
+            campos.dinheiro("media_por_venda", getMediaPorVenda());
+        }
+
         @Override
         public String toString() {
-            return String.format("%s (%s) | ID: %s | Saldo: R$ %.2f | Operações: %d",
-                    nome, tipo, identificador, saldoAtual, quantidadeOperacoes);
+            return String.format("%s | Vendas: %d | Receita: R$ %s | Média: R$ %s", periodo, quantidadeVendas,
+                    Dinheiro.formatar(valorTotal), Dinheiro.formatar(getMediaPorVenda()));
         }
     }
 
@@ -358,14 +825,14 @@ public class RelatorioVendas {
      * Resumo geral do sistema de vendas.
      */
     public static class ResumoVendas {
-        private double totalVendas;
+        private long totalVendas;
         private int quantidadeVendas;
         private int quantidadeClientes;
         private int quantidadeProdutos;
-        private double mediaPorVenda;
+        private long mediaPorVenda;
 
-        public ResumoVendas(double totalVendas, int quantidadeVendas, int quantidadeClientes,
-                int quantidadeProdutos, double mediaPorVenda) {
+        public ResumoVendas(long totalVendas, int quantidadeVendas, int quantidadeClientes,
+                int quantidadeProdutos, long mediaPorVenda) {
             this.totalVendas = totalVendas;
             this.quantidadeVendas = quantidadeVendas;
             this.quantidadeClientes = quantidadeClientes;
@@ -373,7 +840,8 @@ public class RelatorioVendas {
             this.mediaPorVenda = mediaPorVenda;
         }
 
-        public double getTotalVendas() {
+        /** Total vendido em centavos. */
+        public long getTotalVendas() {
             return totalVendas;
         }
 
@@ -389,7 +857,8 @@ public class RelatorioVendas {
             return quantidadeProdutos;
         }
 
-        public double getMediaPorVenda() {
+        /** Ticket médio em centavos. */
+        public long getMediaPorVenda() {
             return mediaPorVenda;
         }
 
@@ -397,12 +866,13 @@ public class RelatorioVendas {
         public String toString() {
             return String.format(
                     "=== RESUMO DE VENDAS ===\n" +
-                            "Total de Vendas: R$ %.2f\n" +
+                            "Total de Vendas: R$ %s\n" +
                             "Quantidade de Vendas: %d\n" +
                             "Quantidade de Clientes: %d\n" +
                             "Quantidade de Produtos: %d\n" +
-                            "Ticket Médio: R$ %.2f",
-                    totalVendas, quantidadeVendas, quantidadeClientes, quantidadeProdutos, mediaPorVenda);
+                            "Ticket Médio: R$ %s",
+                    Dinheiro.formatar(totalVendas), quantidadeVendas, quantidadeClientes, quantidadeProdutos,
+                    Dinheiro.formatar(mediaPorVenda));
         }
     }
 }
@@ -0,0 +1,213 @@
+package dominio;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Relatórios do {@link SistemaVendasParticionado}: cada consulta roda nos
+ * {@link RelatorioVendas} de todas as partições ao mesmo tempo (cada uma na
+ * sua thread) e os resultados parciais são juntados aqui.
+ *
+ * Clientes pertencem a uma única partição, então as listas de clientes
+ * (já ordenadas em cada partição) só são intercaladas. Produtos aparecem em
+ * todas as partições e têm seus totais somados antes de ordenar. Empates
+ * são desempatados pelo código do produto ou pela ordem das partições, e não
+ * pela ordem de primeira venda do relatório de uma partição só.
+ */
+public class RelatorioVendasParticionado {
+    private SistemaVendasParticionado sistema;
+    private List<RelatorioVendas> partes;
+
+    RelatorioVendasParticionado(SistemaVendasParticionado sistema, List<RelatorioVendas> partes) {
+        this.sistema = sistema;
+        this.partes = partes;
+    }
+
+    /**
+     * Produtos vendidos em todas as partições, ordenados por valor (descendente).
+     *
+     * @return mapa "código - nome" com os totais somados
+     */
+    public Map<String, RelatorioVendas.ProdutoVendidoInfo> relatorioProdurosVendidos() {
+        List<List<RelatorioVendas.ProdutoVendidoInfo>> parciais = emCada(r -> {
+            List<RelatorioVendas.ProdutoVendidoInfo> linhas = new ArrayList<>();
+            r.exportarProdutosVendidos(linhas::add);
+            return linhas;
+        });
+        Map<String, RelatorioVendas.ProdutoVendidoInfo> produtosVendidos = new LinkedHashMap<>();
+        for (RelatorioVendas.ProdutoVendidoInfo info : somarProdutos(parciais)) {
+            produtosVendidos.put(info.getCodigo() + " - " + info.getNome(), info);
+        }
+        return produtosVendidos;
+    }
+
+    /**
+     * Os n produtos de maior valor vendido. Como um produto vende em várias
+     * partições, os totais de todos são somados antes da seleção.
+     */
+    public List<RelatorioVendas.ProdutoVendidoInfo> topProdutosVendidos(int n) {
+        List<RelatorioVendas.ProdutoVendidoInfo> todos = new ArrayList<>(relatorioProdurosVendidos().values());
+        return new ArrayList<>(todos.subList(0, Math.max(0, Math.min(n, todos.size()))));
+    }
+
+    /**
+     * Compras do cliente, lidas só da partição dona.
+     */
+    public List<RelatorioVendas.VendaClienteInfo> relatorioComprasCliente(String identificadorCliente) {
+        return partes.get(sistema.particaoDoCliente(identificadorCliente))
+                .relatorioComprasCliente(identificadorCliente);
+    }
+
+    /**
+     * Ranking de clientes por gasto: cada partição ordena os seus e as listas
+     * são intercaladas.
+     */
+    public List<RelatorioVendas.ClienteMaisCompraInfo> relatorioClientesMaisCompram() {
+        return intercalar(emCada(RelatorioVendas::relatorioClientesMaisCompram),
+                Comparator.comparingLong(RelatorioVendas.ClienteMaisCompraInfo::getGastoTotal).reversed(),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Os n clientes que mais gastaram: cada partição devolve só os seus n
+     * primeiros.
+     */
+    public List<RelatorioVendas.ClienteMaisCompraInfo> topClientesMaisCompram(int n) {
+        return intercalar(emCada(r -> r.topClientesMaisCompram(n)),
+                Comparator.comparingLong(RelatorioVendas.ClienteMaisCompraInfo::getGastoTotal).reversed(), n);
+    }
+
+    public List<RelatorioVendas.ClienteMovimentacaoInfo> relatorioClientesMovimentacao() {
+        return intercalar(emCada(RelatorioVendas::relatorioClientesMovimentacao),
+                Comparator.comparingLong(RelatorioVendas.ClienteMovimentacaoInfo::getQuantidadeOperacoes).reversed(),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Soma dos resumos das partições. Produtos são contados uma vez (o
+     * catálogo é o mesmo em todas).
+     */
+    public RelatorioVendas.ResumoVendas gerarResumo() {
+        long totalVendas = 0;
+        int quantidadeVendas = 0;
+        int quantidadeClientes = 0;
+        int quantidadeProdutos = 0;
+        for (RelatorioVendas.ResumoVendas resumo : emCada(RelatorioVendas::gerarResumo)) {
+            totalVendas += resumo.getTotalVendas();
+            quantidadeVendas += resumo.getQuantidadeVendas();
+            quantidadeClientes += resumo.getQuantidadeClientes();
+            quantidadeProdutos = Math.max(quantidadeProdutos, resumo.getQuantidadeProdutos());
+        }
+        return new RelatorioVendas.ResumoVendas(totalVendas, quantidadeVendas, quantidadeClientes,
+                quantidadeProdutos, Dinheiro.dividir(totalVendas, quantidadeVendas));
+    }
+
+    /**
+     * Produtos sem venda em nenhuma partição, na ordem do catálogo.
+     */
+    public List<Produto> relatorioProdurosNaoVendidos() {
+        List<List<Produto>> parciais = emCada(RelatorioVendas::relatorioProdurosNaoVendidos);
+        List<Produto> naoVendidos = new ArrayList<>(parciais.get(0));
+        for (int i = 1; i < parciais.size(); i++) {
+            Set<Integer> naoVendidosNaParticao = new HashSet<>();
+            for (Produto p : parciais.get(i)) {
+                naoVendidosNaParticao.add(p.getCodigo());
+            }
+            naoVendidos.removeIf(p -> !naoVendidosNaParticao.contains(p.getCodigo()));
+        }
+        return naoVendidos;
+    }
+
+    public List<RelatorioVendas.ReceitaPeriodoInfo> relatorioReceitaDiaria(LocalDate inicio, LocalDate fim) {
+        return somarPeriodos(emCada(r -> r.relatorioReceitaDiaria(inicio, fim)));
+    }
+
+    public List<RelatorioVendas.ReceitaPeriodoInfo> relatorioReceitaMensal(LocalDate inicio, LocalDate fim) {
+        return somarPeriodos(emCada(r -> r.relatorioReceitaMensal(inicio, fim)));
+    }
+
+    public List<RelatorioVendas.ProdutoVendidoInfo> relatorioProdutosVendidosNoPeriodo(LocalDate inicio,
+            LocalDate fim) {
+        return somarProdutos(emCada(r -> r.relatorioProdutosVendidosNoPeriodo(inicio, fim)));
+    }
+
+    // ========== AUXILIARES ==========
+
+    private <T> List<T> emCada(Function<RelatorioVendas, T> consulta) {
+        return sistema.emCada(i -> consulta.apply(partes.get(i)));
+    }
+
+    /**
+     * Soma as linhas do mesmo produto e ordena por valor (descendente),
+     * desempatando pelo código.
+     */
+    private static List<RelatorioVendas.ProdutoVendidoInfo> somarProdutos(
+            List<List<RelatorioVendas.ProdutoVendidoInfo>> parciais) {
+        Map<Integer, RelatorioVendas.ProdutoVendidoInfo> porCodigo = new LinkedHashMap<>();
+        for (List<RelatorioVendas.ProdutoVendidoInfo> parcial : parciais) {
+            for (RelatorioVendas.ProdutoVendidoInfo info : parcial) {
+                porCodigo.computeIfAbsent(info.getCodigo(), codigo -> new RelatorioVendas.ProdutoVendidoInfo(
+                        codigo, info.getNome(), info.getPreco(), info.getTipo()))
+                        .adicionarVenda(info.getQuantidadeVendida(), info.getValorTotal());
+            }
+        }
+        List<RelatorioVendas.ProdutoVendidoInfo> somados = new ArrayList<>(porCodigo.values());
+        somados.sort(Comparator.comparingLong(RelatorioVendas.ProdutoVendidoInfo::getValorTotal).reversed()
+                .thenComparingInt(RelatorioVendas.ProdutoVendidoInfo::getCodigo));
+        return somados;
+    }
+
+    private static List<RelatorioVendas.ReceitaPeriodoInfo> somarPeriodos(
+            List<List<RelatorioVendas.ReceitaPeriodoInfo>> parciais) {
+        // Períodos no formato ISO (AAAA-MM-DD ou AAAA-MM) ordenam como texto
+        Map<String, VendasPorPeriodo.Totais> porPeriodo = new TreeMap<>();
+        for (List<RelatorioVendas.ReceitaPeriodoInfo> parcial : parciais) {
+            for (RelatorioVendas.ReceitaPeriodoInfo info : parcial) {
+                porPeriodo.merge(info.getPeriodo(),
+                        new VendasPorPeriodo.Totais(info.getQuantidadeVendas(), info.getValorTotal()),
+                        VendasPorPeriodo.Totais::somar);
+            }
+        }
+        List<RelatorioVendas.ReceitaPeriodoInfo> receitas = new ArrayList<>(porPeriodo.size());
+        porPeriodo.forEach((periodo, totais) -> receitas.add(new RelatorioVendas.ReceitaPeriodoInfo(periodo, totais)));
+        return receitas;
+    }
+
+    /**
+     * Intercala listas já ordenadas pelo critério, até {@code limite} linhas.
+     * Empates saem na ordem das partições.
+     */
+    private static <T> List<T> intercalar(List<List<T>> listas, Comparator<? super T> criterio, int limite) {
+        // Cada posição da fila é {partição, próxima linha da partição}
+        PriorityQueue<int[]> fila = new PriorityQueue<>((a, b) -> {
+            int c = criterio.compare(listas.get(a[0]).get(a[1]), listas.get(b[0]).get(b[1]));
+            return c != 0 ? c : Integer.compare(a[0], b[0]);
+        });
+        int total = 0;
+        for (int i = 0; i < listas.size(); i++) {
+            total += listas.get(i).size();
+            if (!listas.get(i).isEmpty()) {
+                fila.add(new int[] { i, 0 });
+            }
+        }
+        List<T> resultado = new ArrayList<>(Math.min(total, limite));
+        while (!fila.isEmpty() && resultado.size() < limite) {
+            int[] cursor = fila.poll();
+            List<T> lista = listas.get(cursor[0]);
+            resultado.add(lista.get(cursor[1]));
+            if (++cursor[1] < lista.size()) {
+                fila.add(cursor);
+            }
+        }
+        return resultado;
+    }
+}
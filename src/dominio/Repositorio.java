@@ -1,48 +1,61 @@
 package dominio;
 
-import java.io.*;
+import java.io.IOException;
 
 /**
  * Repositório genérico simples que mantém itens em memória e permite
  * salvar/carregar linhas em um arquivo de texto.
+ * O mapa é concorrente, podendo ser usado por vários terminais ao mesmo tempo.
+ * Também guarda a ordem de inserção, para acesso por posição (ex.: tabelas
+ * da interface) sem copiar todos os itens.
  */
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class Repositorio<T extends Persistivel> {
     private Map<String, T> itensMap;
+    private ArrayList<T> ordem;
+    private List<ObjIntConsumer<? super T>> ouvintes;
+    private List<IndiceSecundario<? super T>> indices;
     private String nomeArquivo;
 
     public Repositorio(String nomeArquivo) {
-        this.itensMap = new HashMap<>();
+        this.itensMap = new ConcurrentHashMap<>();
+        this.ordem = new ArrayList<>();
+        this.ouvintes = new CopyOnWriteArrayList<>();
+        this.indices = new CopyOnWriteArrayList<>();
         this.nomeArquivo = nomeArquivo;
     }
 
-    public void salvarParaArquivo() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(this.nomeArquivo))) {
-            for (T item : itensMap.values()) {
-                writer.write(item.toLineString());
-                writer.newLine();
-            }
+    /**
+     * Grava os itens via {@link ArquivoSnapshot}: o arquivo atual só é
+     * substituído depois que o novo estiver completo em disco.
+     *
+     * @return false se a gravação falhar (o arquivo anterior continua intacto)
+     */
+    public boolean salvarParaArquivo() {
+        try {
+            ArquivoSnapshot.gravar(this.nomeArquivo, itensMap.values(), ArquivoSnapshot.GERACOES);
             System.out.println("Dados salvos com sucesso em: " + this.nomeArquivo);
-        } catch (Exception e) {
-            System.err.println("Erro ao salvar dados no arquivo: " + this.nomeArquivo);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erro ao salvar dados no arquivo: " + this.nomeArquivo + " (" + e.getMessage() + ")");
+            return false;
         }
     }
 
+    /**
+     * Linhas do arquivo mais novo cujo checksum confere (ver {@link ArquivoSnapshot#carregar}).
+     */
     public List<String> carregarLinhasDoArquivo() {
         List<String> linhas = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(this.nomeArquivo))) {
-            String linha;
-            while ((linha = reader.readLine()) != null) {
-                if (!linha.trim().isEmpty()) {
-                    linhas.add(linha);
-                }
-            }
+        try {
+            linhas = ArquivoSnapshot.carregar(this.nomeArquivo);
             System.out.println("Dados lidos com sucesso de: " + this.nomeArquivo);
         } catch (IOException e) {
             System.err.println("Arquivo de dados não encontrado ou erro na leitura: " + this.nomeArquivo
@@ -51,12 +64,123 @@ public class Repositorio<T extends Persistivel> {
         return linhas;
     }
 
-    public boolean adicionar(String chave, T item) {
-        if (!itensMap.containsKey(chave)) {
-            itensMap.put(chave, item);
+    /**
+     * Lê o arquivo mais novo válido entregando cada linha já separada em
+     * campos (ver {@link ArquivoSnapshot#carregar(String, java.util.function.IntConsumer, Consumer)}),
+     * sem criar uma String por linha. O mapa é pré-dimensionado pela
+     * quantidade de linhas; quem recebe decodifica e chama {@link #adicionar}.
+     *
+     * @return false se nenhum arquivo válido for encontrado
+     */
+    public boolean carregarDoArquivo(Consumer<LeitorRegistro> destino) {
+        try {
+            ArquivoSnapshot.carregar(this.nomeArquivo, this::reservarCapacidade, destino);
+            System.out.println("Dados lidos com sucesso de: " + this.nomeArquivo);
             return true;
+        } catch (IOException e) {
+            System.err.println("Arquivo de dados não encontrado ou erro na leitura: " + this.nomeArquivo
+                    + ". Inicializado com dados vazios.");
+            return false;
+        }
+    }
+
+    /**
+     * Como {@link #carregarDoArquivo(Consumer)}, mas só do arquivo atual
+     * (sem recorrer às gerações anteriores) e com o erro propagado.
+     *
+     * @throws IOException se o arquivo atual não existir ou for inválido
+     */
+    public void carregarDoArquivoAtual(Consumer<LeitorRegistro> destino) throws IOException {
+        ArquivoSnapshot.carregar(this.nomeArquivo, false, this::reservarCapacidade, destino);
+        System.out.println("Dados lidos com sucesso de: " + this.nomeArquivo);
+    }
+
+    /**
+     * Pré-dimensiona o mapa (e os índices secundários) para a quantidade
+     * esperada de itens, evitando redimensionamentos durante uma carga em
+     * massa. Só tem efeito com o repositório vazio.
+     */
+    public void reservarCapacidade(int quantidade) {
+        if (itensMap.isEmpty()) {
+            this.itensMap = new ConcurrentHashMap<>(Math.max(16, quantidade));
+            synchronized (ordem) {
+                ordem.ensureCapacity(quantidade);
+                for (IndiceSecundario<? super T> indice : indices) {
+                    indice.reservarCapacidade(quantidade);
+                }
+            }
+        }
+    }
+
+    public boolean adicionar(String chave, T item) {
+        if (itensMap.putIfAbsent(chave, item) != null) {
+            return false;
+        }
+        int posicao;
+        synchronized (ordem) {
+            ordem.add(item);
+            posicao = ordem.size() - 1;
+        }
+        for (IndiceSecundario<? super T> indice : indices) {
+            indice.indexar(item);
+        }
+        for (ObjIntConsumer<? super T> ouvinte : ouvintes) {
+            ouvinte.accept(item, posicao);
+        }
+        return true;
+    }
+
+    /**
+     * Item na posição informada, pela ordem de inserção (0 a tamanho() - 1).
+     */
+    public T obter(int posicao) {
+        synchronized (ordem) {
+            return ordem.get(posicao);
+        }
+    }
+
+    public int tamanho() {
+        synchronized (ordem) {
+            return ordem.size();
+        }
+    }
+
+    /**
+     * Registra um ouvinte chamado a cada item adicionado, com o item e sua
+     * posição. É chamado na thread que adicionou: deve ser rápido e, se
+     * mexer na interface, repassar para a thread do Swing.
+     */
+    public void adicionarOuvinte(ObjIntConsumer<? super T> ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Registra um índice secundário, indexando os itens já existentes. Deve
+     * ser registrado antes do uso concorrente (ex.: no construtor de quem
+     * usa o repositório); daí em diante é mantido a cada adicionar.
+     */
+    public <I extends IndiceSecundario<? super T>> I adicionarIndice(I indice) {
+        synchronized (ordem) {
+            for (T item : ordem) {
+                indice.indexar(item);
+            }
+            indices.add(indice);
+        }
+        return indice;
+    }
+
+    /**
+     * Remove todos os itens (ex.: para recarregar de outra fonte). Os ouvintes
+     * e índices são mantidos, com os índices esvaziados.
+     */
+    public void limpar() {
+        synchronized (ordem) {
+            itensMap.clear();
+            ordem.clear();
+            for (IndiceSecundario<? super T> indice : indices) {
+                indice.limpar();
+            }
         }
-        return false;
     }
 
     public T buscar(String chave) {
@@ -0,0 +1,87 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumo de uma importação do {@link ImportadorCsv}: linhas lidas, registros
+ * importados e os erros por linha (a importação continua após cada erro).
+ * Guarda no máximo {@link #MAXIMO_ERROS_GUARDADOS} erros, mas conta todos.
+ */
+public class ResultadoImportacao {
+    public static final int MAXIMO_ERROS_GUARDADOS = 1000;
+
+    private long linhas;
+    private long importados;
+    private long quantidadeErros;
+    private List<Erro> erros;
+
+    public ResultadoImportacao() {
+        this.erros = new ArrayList<>();
+    }
+
+    void somarLinhas(long quantidade) {
+        this.linhas += quantidade;
+    }
+
+    void somarImportado() {
+        this.importados++;
+    }
+
+    void registrarErro(long linha, String mensagem) {
+        quantidadeErros++;
+        if (erros.size() < MAXIMO_ERROS_GUARDADOS) {
+            erros.add(new Erro(linha, mensagem));
+        }
+    }
+
+    public long getLinhas() {
+        return linhas;
+    }
+
+    public long getImportados() {
+        return importados;
+    }
+
+    public long getQuantidadeErros() {
+        return quantidadeErros;
+    }
+
+    /**
+     * Erros guardados (até {@link #MAXIMO_ERROS_GUARDADOS}), bloco a bloco na ordem do arquivo.
+     */
+    public List<Erro> getErros() {
+        return erros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Linhas: %d | Importados: %d | Erros: %d", linhas, importados, quantidadeErros);
+    }
+
+    /**
+     * Erro em uma linha do arquivo (numeradas a partir de 1).
+     */
+    public static class Erro {
+        private long linha;
+        private String mensagem;
+
+        Erro(long linha, String mensagem) {
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+
+        public long getLinha() {
+            return linha;
+        }
+
+        public String getMensagem() {
+            return mensagem;
+        }
+
+        @Override
+        public String toString() {
+            return "Linha " + linha + ": " + mensagem;
+        }
+    }
+}
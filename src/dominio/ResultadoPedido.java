@@ -0,0 +1,55 @@
+package dominio;
+
+/**
+ * Resultado de um {@link PedidoVenda} processado em lote: a situação e,
+ * se finalizado, a venda criada e o total debitado.
+ */
+public class ResultadoPedido {
+    public enum Situacao {
+        FINALIZADO,
+        CLIENTE_NAO_ENCONTRADO,
+        PRODUTO_NAO_ENCONTRADO,
+        QUANTIDADE_INVALIDA,
+        PEDIDO_VAZIO,
+        SALDO_INSUFICIENTE
+    }
+
+    private Situacao situacao;
+    private Venda venda;
+    private long total;
+
+    ResultadoPedido(Situacao situacao, Venda venda, long total) {
+        this.situacao = situacao;
+        this.venda = venda;
+        this.total = total;
+    }
+
+    public Situacao getSituacao() {
+        return situacao;
+    }
+
+    public boolean isFinalizado() {
+        return situacao == Situacao.FINALIZADO;
+    }
+
+    /**
+     * Venda criada, ou null se o pedido não foi finalizado.
+     */
+    public Venda getVenda() {
+        return venda;
+    }
+
+    /**
+     * Total do pedido em centavos (0 se inválido).
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return venda != null
+                ? String.format("%s (Venda #%d, R$ %s)", situacao, venda.getCodigo(), Dinheiro.formatar(total))
+                : situacao.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package dominio;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Executa carregamento, salvamento e relatórios do {@link SistemaVendas} fora
+ * da thread que chama (ex.: a thread do Swing).
+ *
+ * Carregar e salvar rodam em uma única thread, na ordem em que foram pedidos.
+ * Alterações marcadas com {@link #marcarAlterado()} são agrupadas: várias
+ * marcações dentro do intervalo de espera resultam em um único salvamento.
+ * Relatórios rodam em outra thread e podem ser cancelados pelo {@link Future}.
+ */
+public class ServicoPersistencia implements AutoCloseable {
+    public static final long ESPERA_SALVAMENTO_MS = 10000;
+
+    private SistemaVendas sistema;
+    private ScheduledExecutorService persistencia;
+    private ExecutorService relatorios;
+    private AtomicBoolean salvamentoPendente;
+    private long esperaSalvamentoMs;
+
+    public ServicoPersistencia(SistemaVendas sistema) {
+        this(sistema, ESPERA_SALVAMENTO_MS);
+    }
+
+    public ServicoPersistencia(SistemaVendas sistema, long esperaSalvamentoMs) {
+        this.sistema = sistema;
+        this.esperaSalvamentoMs = esperaSalvamentoMs;
+        this.salvamentoPendente = new AtomicBoolean();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                r -> criarThread(r, "persistencia"));
+        executor.setRemoveOnCancelPolicy(true);
+        // No encerramento o salvamento final substitui o agendado
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.persistencia = executor;
+        this.relatorios = Executors.newSingleThreadExecutor(r -> criarThread(r, "relatorios"));
+    }
+
+    /**
+     * Carrega os dados em segundo plano. O carregamento não é cancelável:
+     * parar no meio deixaria o sistema com parte dos dados, e um salvamento
+     * posterior sobrescreveria os arquivos.
+     */
+    public Future<?> carregar(Progresso progresso) {
+        return persistencia.submit(() -> sistema.carregarDados(progresso));
+    }
+
+    /**
+     * Indica que houve alteração. Agenda um salvamento para daqui a
+     * {@code esperaSalvamentoMs}, a menos que um já esteja agendado.
+     */
+    public void marcarAlterado() {
+        if (salvamentoPendente.compareAndSet(false, true)) {
+            persistencia.schedule(this::salvarPendente, esperaSalvamentoMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isSalvamentoPendente() {
+        return salvamentoPendente.get();
+    }
+
+    /**
+     * Salva imediatamente (na fila de persistência), absorvendo um salvamento agendado.
+     *
+     * @return resultado de {@link SistemaVendas#salvarDados(Progresso)} (false se algo não foi gravado)
+     */
+    public Future<Boolean> salvar(Progresso progresso) {
+        return persistencia.submit(() -> {
+            salvamentoPendente.set(false);
+            return sistema.salvarDados(progresso);
+        });
+    }
+
+    /**
+     * Gera o relatório e aplica a consulta em segundo plano. Cancelar o
+     * Future interrompe a thread; consultas longas podem verificar
+     * {@code Thread.currentThread().isInterrupted()}.
+     */
+    public <T> Future<T> gerarRelatorio(Function<RelatorioVendas, T> consulta) {
+        Callable<T> tarefa = () -> consulta.apply(sistema.gerarRelatorio());
+        return relatorios.submit(tarefa);
+    }
+
+    /**
+     * Faz o salvamento final e encerra as threads. Os salvamentos já
+     * agendados são absorvidos por este.
+     */
+    public Future<Boolean> encerrar(Progresso progresso) {
+        Future<Boolean> ultimo = salvar(progresso);
+        persistencia.shutdown();
+        relatorios.shutdownNow();
+        return ultimo;
+    }
+
+    /**
+     * Encerra e espera o salvamento final terminar.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!encerrar(Progresso.NENHUM).get()) {
+                System.err.println("Erro ao salvar dados no encerramento.");
+            }
+            persistencia.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Erro ao salvar dados: " + e.getCause().getMessage());
+        }
+    }
+
+    private void salvarPendente() {
+        // Desmarca antes de salvar: alterações feitas durante a gravação agendam outra.
+        if (salvamentoPendente.getAndSet(false)) {
+            sistema.salvarDados();
+        }
+    }
+
+    private static Thread criarThread(Runnable r, String nome) {
+        Thread t = new Thread(r, nome);
+        t.setDaemon(true);
+        return t;
+    }
+}
@@ -1,41 +1,203 @@
 package dominio;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Camada de negócio que gerencia clientes, produtos e vendas.
- * Usa repositórios simples para persistência em arquivo.
+ * Usa repositórios simples para persistência em arquivo e um diário de
+ * operações para não perder o que aconteceu desde o último salvamento.
+ * Pode ser usada por vários terminais (threads) ao mesmo tempo: as operações
+ * rodam em paralelo e só a compactação do diário as interrompe.
  */
 public class SistemaVendas {
+    /** Quantidade de registros no diário que dispara uma compactação. */
+    private static final int LIMITE_COMPACTACAO = 10000;
+    // Primeiro registro do diário compactado: indica os arquivos sobre os quais
+    // ele foi compactado (sem cadastros nem saldos, só vale com eles)
+    private static final String BASE_TEXTO = "B;txt";
+    private static final String BASE_BINARIA = "B;bin";
+
     // private Map<String, Cliente> clientesMap;
     // private Map<Integer, Produto> produtosMap;
     private Repositorio<Cliente> clientesRepositorio;
     private Repositorio<Produto> produtoRepositorio;
-    private List<Venda> vendas;
-    private int countCodigoVendas = 1;
+    // Índices secundários, mantidos pelos repositórios a cada cadastro
+    private IndicePrefixo<Produto> produtosPorNome;
+    private IndiceEnum<Produto, TipoProduto> produtosPorTipo;
+    private IndicePrefixo<Cliente> clientesPorNome;
+    private IndiceHash<Cliente, String> clientesPorEmail;
+    private IndiceHash<Cliente, String> clientesPorRazaoSocial;
+    private RegistroVendas vendas;
+    private AgregadosVendas agregados;
+    private VendasPorPeriodo periodos;
+    private ItensVendaColunar itensFinalizados;
+    private DiarioOperacoes diario;
+    private AtomicInteger countCodigoVendas = new AtomicInteger(1);
+    /** Operações usam a trava de leitura; a compactação do diário, a de escrita. */
+    private ReadWriteLock travaDiario = new ReentrantReadWriteLock();
+    private boolean snapshotBinario;
+    private boolean itensColunares;
+    private Metricas metricas;
+    private HistogramaLatencia latenciaIniciarVenda;
+    private HistogramaLatencia latenciaAdicionarItem;
+    private HistogramaLatencia latenciaFinalizarVenda;
+    private HistogramaLatencia latenciaLote;
+    private HistogramaLatencia latenciaCarregar;
+    private HistogramaLatencia latenciaSalvar;
+    private LongAdder vendasFinalizadas;
+    private LongAdder itensAdicionados;
+    private LongAdder saldosInsuficientes;
+    private LongAdder vendasCanceladas;
+    private ScheduledExecutorService expiracao;
+    private CompletableFuture<Void> produtosCarregados = new CompletableFuture<>();
+    private CompletableFuture<Void> clientesCarregados = new CompletableFuture<>();
+    private CompletableFuture<Void> pronto = new CompletableFuture<>();
+    private volatile boolean carregamentoFalhou;
 
     public SistemaVendas() {
-        this.clientesRepositorio = new Repositorio<>("clientes.txt");
-        this.produtoRepositorio = new Repositorio<>("produtos.txt");
-        this.vendas = new ArrayList<>();
+        this("clientes.txt", "produtos.txt", "diario.log");
+    }
+
+    /**
+     * Cria o sistema com arquivos próprios.
+     *
+     * @param arquivoDiario arquivo do diário de operações, ou null para não registrar
+     */
+    public SistemaVendas(String arquivoClientes, String arquivoProdutos, String arquivoDiario) {
+        this.clientesRepositorio = new Repositorio<>(arquivoClientes);
+        this.produtoRepositorio = new Repositorio<>(arquivoProdutos);
+        this.produtosPorNome = produtoRepositorio.adicionarIndice(new IndicePrefixo<>(Produto::getNome));
+        this.produtosPorTipo = produtoRepositorio.adicionarIndice(
+                new IndiceEnum<>(TipoProduto.class, Produto::getTipo));
+        this.clientesPorNome = clientesRepositorio.adicionarIndice(new IndicePrefixo<>(Cliente::getNome));
+        this.clientesPorEmail = clientesRepositorio.adicionarIndice(
+                new IndiceHash<>(c -> c.getEmail() != null ? c.getEmail().toLowerCase(Locale.ROOT) : null));
+        this.clientesPorRazaoSocial = clientesRepositorio.adicionarIndice(
+                new IndiceHash<>(c -> c instanceof ClientePJ ? ((ClientePJ) c).getRazaoSocial() : null));
+        this.vendas = new RegistroVendas();
+        this.agregados = new AgregadosVendas();
+        this.diario = arquivoDiario != null ? new DiarioOperacoes(arquivoDiario) : null;
+        this.periodos = new VendasPorPeriodo();
+        this.metricas = new Metricas();
+        this.latenciaIniciarVenda = metricas.histograma(Metricas.INICIAR_VENDA);
+        this.latenciaAdicionarItem = metricas.histograma(Metricas.ADICIONAR_ITEM);
+        this.latenciaFinalizarVenda = metricas.histograma(Metricas.FINALIZAR_VENDA);
+        this.latenciaLote = metricas.histograma(Metricas.PROCESSAR_LOTE);
+        this.latenciaCarregar = metricas.histograma(Metricas.CARREGAR_DADOS);
+        this.latenciaSalvar = metricas.histograma(Metricas.SALVAR_DADOS);
+        this.vendasFinalizadas = metricas.contador(Metricas.VENDAS);
+        this.itensAdicionados = metricas.contador(Metricas.ITENS);
+        this.saldosInsuficientes = metricas.contador(Metricas.SALDO_INSUFICIENTE);
+        this.vendasCanceladas = metricas.contador(Metricas.VENDAS_CANCELADAS);
+    }
+
+    /**
+     * Latências e contadores das operações deste sistema e dos relatórios gerados por ele.
+     */
+    public Metricas getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Faz as vendas finalizadas lerem seus itens do {@link ItensVendaColunar}
+     * (visão sem um objeto por item) em vez de manter a lista de
+     * {@link ItemVenda}. Reduz a memória com muitos itens. Ao ativar, as
+     * vendas já finalizadas que ainda não estão nas colunas são copiadas para
+     * elas. Desligado (padrão), as colunas nem são montadas e os relatórios
+     * por período leem os itens das vendas.
+     */
+    public void setItensColunares(boolean itensColunares) {
+        // Exclusivo: nenhuma venda é finalizada durante a cópia
+        travaDiario.writeLock().lock();
+        try {
+            this.itensColunares = itensColunares;
+            if (!itensColunares) {
+                return;
+            }
+            if (itensFinalizados == null) {
+                itensFinalizados = new ItensVendaColunar();
+            }
+            for (Venda venda : vendas.listarFinalizadas()) {
+                if (!itensFinalizados.contem(venda.getCodigo())) {
+                    usarColunas(venda);
+                }
+            }
+        } finally {
+            travaDiario.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ativa o snapshot binário ({@link SnapshotBinario}) no lugar dos .txt:
+     * carregarDados lê o .bin quando existir e salvarDados grava o .bin.
+     */
+    public void setSnapshotBinario(boolean snapshotBinario) {
+        this.snapshotBinario = snapshotBinario;
     }
 
     private int countCodigoVendas() {
-        return countCodigoVendas++;
+        return countCodigoVendas.getAndIncrement();
+    }
+
+    /**
+     * Faz os próximos códigos de venda começarem em {@code primeiro}, se ainda
+     * não passaram dele. Dá a cada partição do {@link SistemaVendasParticionado}
+     * uma faixa de códigos própria.
+     */
+    void iniciarCodigosVendaEm(int primeiro) {
+        countCodigoVendas.accumulateAndGet(primeiro, Math::max);
     }
 
     public boolean cadastrarCliente(Cliente cliente) {
         String id = cliente.getIdentificador();
-        return clientesRepositorio.adicionar(id, cliente);
+        travaDiario.readLock().lock();
+        try {
+            if (!clientesRepositorio.adicionar(id, cliente)) {
+                return false;
+            }
+            registrarNoDiario("C;" + cliente.toLineString(), true);
+        } finally {
+            travaDiario.readLock().unlock();
+        }
+        compactarSeNecessario();
+        return true;
     }
 
     public boolean cadastrarProduto(Produto produto) {
         String codigoStr = String.valueOf(produto.getCodigo());
-        return produtoRepositorio.adicionar(codigoStr, produto);
-
+        travaDiario.readLock().lock();
+        try {
+            if (!produtoRepositorio.adicionar(codigoStr, produto)) {
+                return false;
+            }
+            registrarNoDiario("P;" + produto.toLineString(), true);
+        } finally {
+            travaDiario.readLock().unlock();
+        }
+        compactarSeNecessario();
+        return true;
     }
 
     public Cliente buscarClientePorIdentificador(String identificador) {
@@ -46,88 +208,651 @@ public class SistemaVendas {
         return produtoRepositorio.buscar(String.valueOf(codigo));
     }
 
+    /**
+     * Produtos cujo nome começa com o prefixo (sem diferenciar maiúsculas
+     * nem acentos), em ordem alfabética, no máximo {@code limite}.
+     */
+    public List<Produto> buscarProdutosPorNome(String prefixo, int limite) {
+        return produtosPorNome.buscarPrefixo(prefixo, limite);
+    }
+
+    public List<Produto> listarProdutosPorTipo(TipoProduto tipo) {
+        return produtosPorTipo.buscar(tipo);
+    }
+
+    /**
+     * Clientes cujo nome começa com o prefixo, em ordem alfabética, no máximo {@code limite}.
+     */
+    public List<Cliente> buscarClientesPorNome(String prefixo, int limite) {
+        return clientesPorNome.buscarPrefixo(prefixo, limite);
+    }
+
+    /**
+     * Cliente com o email informado (sem diferenciar maiúsculas), ou null.
+     */
+    public Cliente buscarClientePorEmail(String email) {
+        return clientesPorEmail.buscarPrimeiro(email.toLowerCase(Locale.ROOT));
+    }
+
+    public List<Cliente> buscarClientesPorRazaoSocial(String razaoSocial) {
+        return clientesPorRazaoSocial.buscar(razaoSocial);
+    }
+
     public Venda buscarVendaPorCodigo(int codigo) {
-        return vendas.stream()
-                .filter(v -> v.getCodigo() == codigo)
-                .findFirst()
-                .orElse(null);
+        return vendas.buscar(codigo);
+    }
+
+    /**
+     * Vendas finalizadas com data entre {@code inicio} e {@code fim}, inclusive,
+     * em ordem de dia. Só percorre as partições diárias do período.
+     */
+    public List<Venda> listarVendasNoPeriodo(LocalDate inicio, LocalDate fim) {
+        List<Venda> resultado = new ArrayList<>();
+        periodos.paraCadaVenda(inicio, fim, (codigo, instante, total) -> resultado.add(vendas.buscar(codigo)));
+        return resultado;
     }
 
     public Venda iniciarNovaVenda(String identificadorCliente) {
-        Cliente cliente = buscarClientePorIdentificador(identificadorCliente);
-        if (cliente == null) {
-            System.out.println("Erro: Cliente não encontrado.");
-            return null;
+        long inicio = System.nanoTime();
+        try {
+            Cliente cliente = buscarClientePorIdentificador(identificadorCliente);
+            if (cliente == null) {
+                System.out.println("Erro: Cliente não encontrado.");
+                return null;
+            }
+            Venda novaVenda = new Venda(countCodigoVendas(), cliente);
+            travaDiario.readLock().lock();
+            try {
+                this.vendas.adicionar(novaVenda);
+                registrarNoDiario(registroInicioVenda(novaVenda), false);
+            } finally {
+                travaDiario.readLock().unlock();
+            }
+            compactarSeNecessario();
+            return novaVenda;
+        } finally {
+            latenciaIniciarVenda.registrarDesde(inicio);
         }
-        Venda novaVenda = new Venda(countCodigoVendas(), cliente);
-        this.vendas.add(novaVenda);
-        return novaVenda;
     }
 
     public boolean adicionarItemAVenda(int codigoVenda, int codigoProduto, int quantidade) {
-        Venda venda = buscarVendaPorCodigo(codigoVenda);
-        Produto produto = buscarProdutoPorCodigo(codigoProduto);
+        long inicio = System.nanoTime();
+        try {
+            Venda venda = buscarVendaPorCodigo(codigoVenda);
+            Produto produto = buscarProdutoPorCodigo(codigoProduto);
+
+            if (venda == null) {
+                System.out.println("Erro: Venda não encontrada.");
+                return false;
+            }
+            if (produto == null) {
+                System.out.println("Erro: Produto não encontrado.");
+                return false;
+            }
+            if (quantidade <= 0) {
+                System.out.println("Erro: Quantidade inválida.");
+                return false;
+            }
+            travaDiario.readLock().lock();
+            try {
+                // Alteração e registro juntos na venda: uma finalização em outro
+                // terminal não pode ir para o diário entre os dois
+                synchronized (venda) {
+                    ItemVenda item;
+                    try {
+                        item = new ItemVenda(produto, quantidade);
+                        venda.adicionarItem(item);
+                    } catch (IllegalStateException e) {
+                        System.out.println("Erro: Venda já finalizada ou cancelada.");
+                        return false;
+                    } catch (ArithmeticException e) {
+                        System.out.println("Erro: Quantidade inválida.");
+                        return false;
+                    }
+                    itensAdicionados.increment();
+                    registrarNoDiario(registroItem(codigoVenda, item), false);
+                }
+            } finally {
+                travaDiario.readLock().unlock();
+            }
+            compactarSeNecessario();
+            return true;
+        } finally {
+            latenciaAdicionarItem.registrarDesde(inicio);
+        }
+    }
 
+    /**
+     * Remove da venda aberta o item do produto.
+     */
+    public boolean removerItemDaVenda(int codigoVenda, int codigoProduto) {
+        Venda venda = buscarVendaPorCodigo(codigoVenda);
         if (venda == null) {
             System.out.println("Erro: Venda não encontrada.");
             return false;
         }
-        if (produto == null) {
-            System.out.println("Erro: Produto não encontrado.");
+        travaDiario.readLock().lock();
+        try {
+            synchronized (venda) {
+                try {
+                    if (!venda.removerItem(codigoProduto)) {
+                        System.out.println("Erro: Produto não está na venda.");
+                        return false;
+                    }
+                } catch (IllegalStateException e) {
+                    System.out.println("Erro: Venda já finalizada ou cancelada.");
+                    return false;
+                }
+                registrarNoDiario("X;" + codigoVenda + ";" + codigoProduto, false);
+            }
+        } finally {
+            travaDiario.readLock().unlock();
+        }
+        compactarSeNecessario();
+        return true;
+    }
+
+    /**
+     * Troca a quantidade do item do produto na venda aberta (o preço
+     * unitário do item é mantido).
+     */
+    public boolean alterarQuantidadeItem(int codigoVenda, int codigoProduto, int quantidade) {
+        Venda venda = buscarVendaPorCodigo(codigoVenda);
+        if (venda == null) {
+            System.out.println("Erro: Venda não encontrada.");
             return false;
         }
         if (quantidade <= 0) {
             System.out.println("Erro: Quantidade inválida.");
             return false;
         }
-        venda.adicionarItem(produto, quantidade);
+        travaDiario.readLock().lock();
+        try {
+            synchronized (venda) {
+                try {
+                    if (!venda.alterarQuantidade(codigoProduto, quantidade)) {
+                        System.out.println("Erro: Produto não está na venda.");
+                        return false;
+                    }
+                } catch (IllegalStateException e) {
+                    System.out.println("Erro: Venda já finalizada ou cancelada.");
+                    return false;
+                } catch (ArithmeticException e) {
+                    System.out.println("Erro: Quantidade inválida.");
+                    return false;
+                }
+                registrarNoDiario("Q;" + codigoVenda + ";" + codigoProduto + ";" + quantidade, false);
+            }
+        } finally {
+            travaDiario.readLock().unlock();
+        }
+        compactarSeNecessario();
         return true;
     }
 
     public boolean finalizarVenda(int codigoVenda) throws SaldoInsuficienteException {
+        long inicio = System.nanoTime();
+        try {
+            Venda venda = buscarVendaPorCodigo(codigoVenda);
+            if (venda == null) {
+                System.out.println("Erro: Venda não encontrada.");
+                return false;
+            }
+            if (!venda.isAberta()) {
+                System.out.println("Erro: Venda já finalizada ou cancelada.");
+                return false;
+            }
+            boolean sucesso;
+            travaDiario.readLock().lock();
+            try {
+                synchronized (venda) {
+                    long total = venda.calcularTotal();
+                    // Não debita de novo se outro terminal finalizou/cancelou antes
+                    sucesso = venda.finalizarVenda();
+                    if (sucesso) {
+                        vendas.finalizar(venda);
+                        registrarFinalizada(venda);
+                        vendasFinalizadas.increment();
+                        registrarNoDiario("F;" + codigoVenda + ";" + Dinheiro.formatar(total), true);
+                    }
+                }
+            } finally {
+                travaDiario.readLock().unlock();
+            }
+            compactarSeNecessario();
+            return sucesso;
+        } catch (SaldoInsuficienteException e) {
+            saldosInsuficientes.increment();
+            throw e;
+        } finally {
+            latenciaFinalizarVenda.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * Cancela uma venda aberta: nada é debitado e ela deixa de existir no
+     * sistema (buscas pelo código passam a retornar null).
+     */
+    public boolean cancelarVenda(int codigoVenda) {
         Venda venda = buscarVendaPorCodigo(codigoVenda);
         if (venda == null) {
-            System.out.println("Erro: Venda não encontrada ou já finalizada.");
+            System.out.println("Erro: Venda não encontrada.");
+            return false;
+        }
+        if (!cancelar(venda)) {
+            System.out.println("Erro: Venda já finalizada ou cancelada.");
             return false;
         }
-        return venda.finalizarVenda();
+        compactarSeNecessario();
+        return true;
     }
 
-    public void carregarDados() {
-        List<String> linhasProdutos = produtoRepositorio.carregarLinhasDoArquivo();
-        for (String linha : linhasProdutos) {
-            try {
-                Produto p = Produto.fromString(linha);
-                produtoRepositorio.adicionar(String.valueOf(p.getCodigo()), p);
-            } catch (Exception e) {
-                System.err.println("Erro ao carregar Produto: " + e.getMessage());
+    /**
+     * Cancela as vendas abertas sem alteração de itens há pelo menos
+     * {@code inativaHaMs} (carrinhos abandonados). Só percorre as abertas.
+     *
+     * @return quantidade de vendas canceladas
+     */
+    public int expirarVendasAbertas(long inativaHaMs) {
+        long limite = System.currentTimeMillis() - inativaHaMs;
+        int canceladas = 0;
+        for (Venda venda : vendas.listarAbertas()) {
+            if (venda.getUltimaAlteracao() <= limite && cancelar(venda)) {
+                canceladas++;
             }
         }
-        List<String> linhasClientes = clientesRepositorio.carregarLinhasDoArquivo();
-        for (String linha : linhasClientes) {
+        if (canceladas > 0) {
+            compactarSeNecessario();
+        }
+        return canceladas;
+    }
+
+    /**
+     * Chama {@link #expirarVendasAbertas(long)} a cada {@code intervaloMs}, em
+     * uma thread própria, até {@link #pararExpiracao()}. Substitui uma
+     * expiração anterior.
+     */
+    public synchronized void iniciarExpiracao(long inativaHaMs, long intervaloMs) {
+        pararExpiracao();
+        expiracao = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "expiracao-vendas");
+            t.setDaemon(true);
+            return t;
+        });
+        expiracao.scheduleAtFixedRate(() -> {
             try {
-                Cliente c = null;
-                if (linha.startsWith("PF;")) {
-                    String dados = linha.substring(3);
-                    c = ClientePF.fromString(dados);
-                } else if (linha.startsWith("PJ;")) {
-                    String dados = linha.substring(3);
-                    c = ClientePJ.fromString(dados);
+                expirarVendasAbertas(inativaHaMs);
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao expirar vendas abertas: " + e.getMessage());
+            }
+        }, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void pararExpiracao() {
+        if (expiracao != null) {
+            expiracao.shutdownNow();
+            expiracao = null;
+        }
+    }
+
+    /**
+     * Deposita na conta do cliente e registra a operação no diário.
+     *
+     * @param valor valor em centavos
+     * @return false se o cliente não existir ou o valor for inválido
+     */
+    public boolean depositar(String identificadorCliente, long valor) {
+        Cliente cliente = buscarClientePorIdentificador(identificadorCliente);
+        if (cliente == null) {
+            System.out.println("Erro: Cliente não encontrado.");
+            return false;
+        }
+        travaDiario.readLock().lock();
+        try {
+            if (!cliente.getConta().depositar(valor)) {
+                return false;
+            }
+            registrarNoDiario("D;" + identificadorCliente + ";" + Dinheiro.formatar(valor), true);
+        } finally {
+            travaDiario.readLock().unlock();
+        }
+        compactarSeNecessario();
+        return true;
+    }
+
+    /**
+     * Processa vários pedidos de uma vez, como iniciar + adicionar itens +
+     * finalizar para cada um, porém:
+     * <ul>
+     * <li>clientes e produtos são buscados uma vez por lote;</li>
+     * <li>todos os pedidos são validados antes de qualquer débito;</li>
+     * <li>cada cliente é debitado uma vez pela soma dos seus pedidos (ou pedido
+     * a pedido, na ordem, se o saldo não cobrir todos);</li>
+     * <li>o lote vai para o diário em um bloco, com uma única sincronização.</li>
+     * </ul>
+     * Só pedidos finalizados geram vendas. Não escreve mensagens no console.
+     *
+     * @return um resultado por pedido, na mesma ordem
+     */
+    public List<ResultadoPedido> processarLote(List<PedidoVenda> pedidos) {
+        long inicio = System.nanoTime();
+        try {
+            return processarPedidos(pedidos);
+        } finally {
+            latenciaLote.registrarDesde(inicio);
+        }
+    }
+
+    private List<ResultadoPedido> processarPedidos(List<PedidoVenda> pedidos) {
+        int quantidade = pedidos.size();
+        ResultadoPedido[] resultados = new ResultadoPedido[quantidade];
+        Cliente[] clientes = new Cliente[quantidade];
+        long[] totais = new long[quantidade];
+        Map<String, Cliente> clientesLote = new HashMap<>();
+        IndiceInt posicaoProduto = new IndiceInt();
+        List<Produto> produtosLote = new ArrayList<>();
+
+        // 1) Resolve e valida tudo (inclusive a soma por cliente) antes de mexer em qualquer saldo
+        Map<Cliente, List<Integer>> pedidosPorCliente = new LinkedHashMap<>();
+        Map<Cliente, long[]> somaPorCliente = new HashMap<>();
+        for (int i = 0; i < quantidade; i++) {
+            PedidoVenda pedido = pedidos.get(i);
+            Cliente cliente = clientesLote.computeIfAbsent(pedido.getIdentificadorCliente(),
+                    this::buscarClientePorIdentificador);
+            ResultadoPedido.Situacao erro = null;
+            long total = 0;
+            if (cliente == null) {
+                erro = ResultadoPedido.Situacao.CLIENTE_NAO_ENCONTRADO;
+            } else if (pedido.getQuantidadeItens() == 0) {
+                erro = ResultadoPedido.Situacao.PEDIDO_VAZIO;
+            }
+            for (int j = 0; erro == null && j < pedido.getQuantidadeItens(); j++) {
+                Produto produto = produtoDoLote(pedido.getCodigoProduto(j), posicaoProduto, produtosLote);
+                if (produto == null) {
+                    erro = ResultadoPedido.Situacao.PRODUTO_NAO_ENCONTRADO;
+                } else if (pedido.getQuantidade(j) <= 0) {
+                    erro = ResultadoPedido.Situacao.QUANTIDADE_INVALIDA;
+                } else {
+                    try {
+                        total = Math.addExact(total,
+                                Dinheiro.multiplicar(produto.getPrecoCentavos(), pedido.getQuantidade(j)));
+                    } catch (ArithmeticException e) {
+                        erro = ResultadoPedido.Situacao.QUANTIDADE_INVALIDA;
+                    }
                 }
-                if (c != null) {
-                    clientesRepositorio.adicionar(c.getIdentificador(), c);
+            }
+            long[] soma = erro == null ? somaPorCliente.computeIfAbsent(cliente, c -> new long[1]) : null;
+            if (soma != null) {
+                try {
+                    soma[0] = Math.addExact(soma[0], total);
+                } catch (ArithmeticException e) {
+                    erro = ResultadoPedido.Situacao.QUANTIDADE_INVALIDA;
                 }
-            } catch (DocumentoInvalidoException e) {
-                System.err.println("Erro de validação ao carregar cliente: " + e.getMessage());
-            } catch (Exception e) {
-                System.err.println("Erro ao carregar Cliente: " + e.getMessage());
             }
+            if (erro != null) {
+                resultados[i] = new ResultadoPedido(erro, null, 0);
+            } else {
+                clientes[i] = cliente;
+                totais[i] = total;
+                pedidosPorCliente.computeIfAbsent(cliente, c -> new ArrayList<>()).add(i);
+            }
+        }
+
+        travaDiario.readLock().lock();
+        try {
+            // 2) Débitos: um por cliente quando o saldo cobre todos os pedidos dele
+            boolean[] debitado = new boolean[quantidade];
+            // Pedidos pagos pelo débito único do cliente (um movimento no extrato)
+            boolean[] debitoUnico = new boolean[quantidade];
+            List<Cliente> debitosUnicos = new ArrayList<>();
+            int finalizados = 0;
+            for (Map.Entry<Cliente, List<Integer>> entrada : pedidosPorCliente.entrySet()) {
+                Conta conta = entrada.getKey().getConta();
+                List<Integer> indices = entrada.getValue();
+                long soma = somaPorCliente.get(entrada.getKey())[0];
+                boolean todos = indices.size() > 1 && debitarSemExcecao(conta, soma);
+                if (todos) {
+                    debitosUnicos.add(entrada.getKey());
+                }
+                for (int i : indices) {
+                    debitoUnico[i] = todos;
+                    debitado[i] = todos || debitarSemExcecao(conta, totais[i]);
+                    if (debitado[i]) {
+                        finalizados++;
+                    } else {
+                        resultados[i] = new ResultadoPedido(ResultadoPedido.Situacao.SALDO_INSUFICIENTE, null,
+                                totais[i]);
+                        saldosInsuficientes.increment();
+                    }
+                }
+            }
+
+            // 3) Cria as vendas já finalizadas e grava o lote no diário. Como no
+            // extrato, o débito único de um cliente vira um registro L (e as
+            // vendas dele, R); as demais vendas levam o próprio débito em F.
+            int codigo = countCodigoVendas.getAndAdd(finalizados);
+            long agora = System.currentTimeMillis();
+            StringBuilder registros = diario != null ? new StringBuilder(finalizados * 64) : null;
+            int quantidadeRegistros = 0;
+            for (int i = 0; i < quantidade; i++) {
+                if (!debitado[i]) {
+                    continue;
+                }
+                PedidoVenda pedido = pedidos.get(i);
+                Venda venda = new Venda(codigo++, clientes[i], new Date(agora));
+                if (registros != null) {
+                    registros.append(registroInicioVenda(venda)).append('\n');
+                }
+                for (int j = 0; j < pedido.getQuantidadeItens(); j++) {
+                    ItemVenda item = new ItemVenda(
+                            produtoDoLote(pedido.getCodigoProduto(j), posicaoProduto, produtosLote),
+                            pedido.getQuantidade(j));
+                    venda.adicionarItem(item);
+                    if (registros != null) {
+                        registros.append("A;").append(venda.getCodigo()).append(';')
+                                .append(pedido.getCodigoProduto(j)).append(';').append(pedido.getQuantidade(j))
+                                .append(';');
+                        Dinheiro.formatar(item.getPrecoUnitario(), registros).append('\n');
+                    }
+                }
+                venda.marcarFinalizada();
+                vendas.adicionar(venda);
+                registrarFinalizada(venda);
+                itensAdicionados.add(pedido.getQuantidadeItens());
+                if (registros != null) {
+                    if (debitoUnico[i]) {
+                        registros.append("R;").append(venda.getCodigo()).append('\n');
+                    } else {
+                        registros.append("F;").append(venda.getCodigo()).append(';');
+                        Dinheiro.formatar(totais[i], registros).append('\n');
+                    }
+                    quantidadeRegistros += 2 + pedido.getQuantidadeItens();
+                }
+                resultados[i] = new ResultadoPedido(ResultadoPedido.Situacao.FINALIZADO, venda, totais[i]);
+            }
+            if (registros != null) {
+                for (Cliente cliente : debitosUnicos) {
+                    registros.append("L;").append(cliente.getIdentificador()).append(';');
+                    Dinheiro.formatar(somaPorCliente.get(cliente)[0], registros).append('\n');
+                    quantidadeRegistros++;
+                }
+            }
+            vendasFinalizadas.add(finalizados);
+            if (quantidadeRegistros > 0) {
+                diario.sincronizar(diario.registrarBloco(registros, quantidadeRegistros));
+            }
+        } finally {
+            travaDiario.readLock().unlock();
+        }
+        compactarSeNecessario();
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Importa um arquivo grande de produtos com o {@link ImportadorCsv}.
+     * Os produtos importados não passam pelo diário: ao final os dados são
+     * salvos para que não se percam.
+     */
+    public ResultadoImportacao importarProdutos(String arquivo) throws IOException {
+        ResultadoImportacao resultado = ImportadorCsv.importarProdutos(arquivo, produtoRepositorio);
+        if (resultado.getImportados() > 0) {
+            salvarDados();
         }
+        return resultado;
     }
 
-    public void salvarDados() {
-        clientesRepositorio.salvarParaArquivo();
-        produtoRepositorio.salvarParaArquivo();
+    /**
+     * Importa um arquivo grande de clientes (ver {@link #importarProdutos}).
+     */
+    public ResultadoImportacao importarClientes(String arquivo) throws IOException {
+        ResultadoImportacao resultado = ImportadorCsv.importarClientes(arquivo, clientesRepositorio);
+        if (resultado.getImportados() > 0) {
+            salvarDados();
+        }
+        return resultado;
+    }
+
+    /**
+     * Importa pedidos como vendas via {@link #processarLote} (registradas no diário).
+     */
+    public ResultadoImportacao importarPedidos(String arquivo) throws IOException {
+        return ImportadorCsv.importarPedidos(arquivo, this);
+    }
+
+    public void carregarDados() {
+        carregarDados(Progresso.NENHUM);
+    }
+
+    /**
+     * Carrega os dados informando cada etapa ao progresso. Se o diário foi
+     * compactado sobre arquivos que não podem ser lidos, lança
+     * IllegalStateException (as gerações anteriores não têm os cadastros e
+     * saldos atuais) e {@link #salvarDados()} passa a recusar a gravação.
+     * Produtos e
+     * clientes são lidos ao mesmo tempo (produtos numa thread própria) e
+     * completam {@link #getProdutosCarregados()} e
+     * {@link #getClientesCarregados()} assim que cada um termina; depois da
+     * reprodução do diário completa {@link #getPronto()}.
+     */
+    public void carregarDados(Progresso progresso) {
+        long inicio = System.nanoTime();
+        try {
+            List<String> registrosDiario = diario != null ? diario.lerRegistros() : List.of();
+            String base = registrosDiario.isEmpty() ? null : registrosDiario.get(0);
+            progresso.atualizar("Carregando produtos e clientes", 0);
+            if (BASE_BINARIA.equals(base)) {
+                // Diário compactado sobre os .bin: os .txt estão desatualizados
+                try {
+                    carregarBinarios(false);
+                } catch (IOException e) {
+                    throw arquivosDesatualizados(SnapshotBinario.nomeBinario(clientesRepositorio.getNomeArquivo()) + " / "
+                            + SnapshotBinario.nomeBinario(produtoRepositorio.getNomeArquivo()), e);
+                }
+            } else if (BASE_TEXTO.equals(base) || !snapshotBinario || !carregarSnapshotBinario()) {
+                carregarTextoEmParalelo(progresso, BASE_TEXTO.equals(base));
+            }
+            produtosCarregados.complete(null);
+            clientesCarregados.complete(null);
+            progresso.atualizar("Reproduzindo diário de operações", 80);
+            reproduzirDiario(registrosDiario);
+            progresso.atualizar("Dados carregados", 100);
+            pronto.complete(null);
+        } catch (RuntimeException | Error e) {
+            // Salvar agora gravaria por cima dos arquivos com dados incompletos
+            carregamentoFalhou = true;
+            produtosCarregados.completeExceptionally(e);
+            clientesCarregados.completeExceptionally(e);
+            pronto.completeExceptionally(e);
+            throw e;
+        } finally {
+            latenciaCarregar.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * Completa quando os produtos do arquivo estiverem no repositório (antes
+     * da reprodução do diário).
+     */
+    public CompletableFuture<Void> getProdutosCarregados() {
+        return produtosCarregados;
+    }
+
+    /**
+     * Completa quando os clientes do arquivo estiverem no repositório (antes
+     * da reprodução do diário).
+     */
+    public CompletableFuture<Void> getClientesCarregados() {
+        return clientesCarregados;
+    }
+
+    /**
+     * Completa ao fim do primeiro carregarDados, com o diário já reproduzido.
+     * Cadastros e vendas devem esperar por ele: o diário ainda pode conter
+     * os mesmos clientes e produtos.
+     */
+    public CompletableFuture<Void> getPronto() {
+        return pronto;
+    }
+
+    /**
+     * Salva os arquivos de clientes e produtos e compacta o diário,
+     * mantendo nele apenas o histórico de vendas.
+     *
+     * @return false se algum arquivo (ou o diário) não pôde ser gravado
+     */
+    public boolean salvarDados() {
+        return salvarDados(Progresso.NENHUM);
+    }
+
+    /**
+     * Salva os dados informando cada etapa ao progresso.
+     *
+     * @return false se algum arquivo (ou o diário) não pôde ser gravado
+     */
+    public boolean salvarDados(Progresso progresso) {
+        if (carregamentoFalhou) {
+            System.err.println("Dados não salvos: o carregamento falhou e os arquivos seriam sobrescritos.");
+            progresso.atualizar("Carregamento incompleto: dados não salvos", 100);
+            return false;
+        }
+        long inicio = System.nanoTime();
+        try {
+            if (diario == null) {
+                progresso.atualizar("Gravando arquivos", 0);
+                if (!salvarSnapshots()) {
+                    progresso.atualizar("Erro ao gravar arquivos", 100);
+                    return false;
+                }
+                progresso.atualizar("Dados salvos", 100);
+                return true;
+            }
+            travaDiario.writeLock().lock();
+            try {
+                // 1) O diário passa a conter o estado completo: se o processo cair
+                // durante a gravação dos .txt, a reprodução ainda chega ao estado certo.
+                progresso.atualizar("Gravando ponto de verificação", 0);
+                diario.reescrever(registrosPontoVerificacao(true));
+                progresso.atualizar("Gravando arquivos", 30);
+                if (!salvarSnapshots()) {
+                    // O diário completo continua sendo a fonte dos dados
+                    progresso.atualizar("Erro ao gravar arquivos", 100);
+                    return false;
+                }
+                // 2) Com os .txt atualizados, basta manter o histórico de vendas.
+                progresso.atualizar("Compactando diário", 80);
+                diario.reescrever(registrosPontoVerificacao(false));
+                progresso.atualizar("Dados salvos", 100);
+                return true;
+            } catch (IOException e) {
+                System.err.println("Erro ao compactar diário de operações: " + e.getMessage());
+                progresso.atualizar("Erro ao compactar diário", 100);
+                return false;
+            } finally {
+                travaDiario.writeLock().unlock();
+            }
+        } finally {
+            latenciaSalvar.registrarDesde(inicio);
+        }
     }
 
     public List<Cliente> listarClientes() {
@@ -138,22 +863,532 @@ public class SistemaVendas {
         return produtoRepositorio.listarTodos();
     }
 
+    // Acesso por posição (ordem de cadastro), sem copiar os repositórios
+
+    public int quantidadeClientes() {
+        return clientesRepositorio.tamanho();
+    }
+
+    public Cliente clienteNaPosicao(int posicao) {
+        return clientesRepositorio.obter(posicao);
+    }
+
+    public int quantidadeProdutos() {
+        return produtoRepositorio.tamanho();
+    }
+
+    public Produto produtoNaPosicao(int posicao) {
+        return produtoRepositorio.obter(posicao);
+    }
+
+    /**
+     * Ouvinte chamado a cada cliente cadastrado (inclusive no carregamento e no diário).
+     */
+    public void observarClientes(ObjIntConsumer<? super Cliente> ouvinte) {
+        clientesRepositorio.adicionarOuvinte(ouvinte);
+    }
+
+    public void observarProdutos(ObjIntConsumer<? super Produto> ouvinte) {
+        produtoRepositorio.adicionarOuvinte(ouvinte);
+    }
+
     /**
      * Retorna um objeto RelatorioVendas para gerar análises e estatísticas.
+     * O relatório lê os totais mantidos a cada venda finalizada.
      *
      * @return instância de RelatorioVendas com os dados do sistema
      */
     public RelatorioVendas gerarRelatorio() {
-        return new RelatorioVendas(vendas, listarClientes(), listarProdutos());
+        return new RelatorioVendas(agregados, periodos, itensColunares ? itensFinalizados : null,
+                this::buscarVendaPorCodigo, this::buscarProdutoPorCodigo, listarClientes(), listarProdutos(), metricas);
     }
 
     /**
-     * Retorna a lista de todas as vendas realizadas.
+     * Retorna a lista de todas as vendas (finalizadas e depois as abertas;
+     * canceladas não aparecem).
      *
      * @return lista de vendas
      */
     public List<Venda> listarVendas() {
-        return new ArrayList<>(vendas);
+        return vendas.listar();
+    }
+
+    /**
+     * Vendas finalizadas, em ordem de finalização (base para relatórios).
+     */
+    public List<Venda> listarVendasFinalizadas() {
+        return vendas.listarFinalizadas();
+    }
+
+    /**
+     * Vendas ainda abertas, em ordem de início.
+     */
+    public List<Venda> listarVendasAbertas() {
+        return vendas.listarAbertas();
+    }
+
+    // ========== ARQUIVOS DE DADOS ==========
+
+    /**
+     * Lê produtos.txt numa thread própria enquanto clientes.txt é lido nesta.
+     * Os arquivos e repositórios são independentes; cada repositório já é
+     * pré-dimensionado pela quantidade de linhas do seu arquivo.
+     */
+    private void carregarTextoEmParalelo(Progresso progresso, boolean somenteAtual) {
+        CompletableFuture<Void> produtos = emParalelo("carregar-produtos", () -> {
+            carregarProdutosTexto(somenteAtual);
+            produtosCarregados.complete(null);
+        });
+        try {
+            carregarClientesTexto(somenteAtual);
+            clientesCarregados.complete(null);
+            if (!produtos.isDone()) {
+                progresso.atualizar("Carregando produtos", 40);
+            }
+        } finally {
+            aguardar(produtos);
+        }
+    }
+
+    /**
+     * @param somenteAtual sem recorrer às gerações anteriores; um arquivo
+     *                     atual ausente ou inválido é erro
+     */
+    private void carregarProdutosTexto(boolean somenteAtual) {
+        carregarTexto(produtoRepositorio, somenteAtual, registro -> {
+            try {
+                Produto p = registro.produto(0);
+                produtoRepositorio.adicionar(String.valueOf(p.getCodigo()), p);
+            } catch (Exception e) {
+                System.err.println("Erro ao carregar Produto: " + e.getMessage());
+            }
+        });
+    }
+
+    private void carregarClientesTexto(boolean somenteAtual) {
+        carregarTexto(clientesRepositorio, somenteAtual, registro -> {
+            try {
+                Cliente c = registro.cliente();
+                if (c != null) {
+                    clientesRepositorio.adicionar(c.getIdentificador(), c);
+                }
+            } catch (DocumentoInvalidoException e) {
+                System.err.println("Erro de validação ao carregar cliente: " + e.getMessage());
+            } catch (Exception e) {
+                System.err.println("Erro ao carregar Cliente: " + e.getMessage());
+            }
+        });
+    }
+
+    private static void carregarTexto(Repositorio<?> repositorio, boolean somenteAtual,
+            Consumer<LeitorRegistro> destino) {
+        if (!somenteAtual) {
+            repositorio.carregarDoArquivo(destino);
+            return;
+        }
+        try {
+            repositorio.carregarDoArquivoAtual(destino);
+        } catch (IOException e) {
+            throw arquivosDesatualizados(repositorio.getNomeArquivo(), e);
+        }
+    }
+
+    private static IllegalStateException arquivosDesatualizados(String arquivo, IOException causa) {
+        return new IllegalStateException("Não foi possível ler " + arquivo + " (" + causa.getMessage()
+                + "). O diário foi compactado sobre esse arquivo e as cópias anteriores não têm os cadastros e"
+                + " saldos atuais: restaure-o antes de continuar.", causa);
     }
 
+    /**
+     * Carrega produtos e clientes dos arquivos .bin.
+     *
+     * @return false se algum .bin não existir ou for inválido (usar os .txt)
+     */
+    private boolean carregarSnapshotBinario() {
+        String binProdutos = SnapshotBinario.nomeBinario(produtoRepositorio.getNomeArquivo());
+        String binClientes = SnapshotBinario.nomeBinario(clientesRepositorio.getNomeArquivo());
+        if (!new File(binProdutos).exists() || !new File(binClientes).exists()) {
+            return false;
+        }
+        try {
+            carregarBinarios(true);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erro ao carregar snapshot binário, usando arquivos de texto: " + e.getMessage());
+            produtoRepositorio.limpar();
+            clientesRepositorio.limpar();
+            return false;
+        }
+    }
+
+    /**
+     * Lê os dois .bin ao mesmo tempo. Os futuros só são completados depois
+     * dos dois: se um falhar, quem chama descarta ambos.
+     *
+     * @param aceitarGeracaoAnterior se um .bin inválido pode ser trocado pela
+     *                               sua geração anterior válida
+     */
+    private void carregarBinarios(boolean aceitarGeracaoAnterior) throws IOException {
+        String binProdutos = SnapshotBinario.nomeBinario(produtoRepositorio.getNomeArquivo());
+        String binClientes = SnapshotBinario.nomeBinario(clientesRepositorio.getNomeArquivo());
+        CompletableFuture<Void> produtos = emParalelo("carregar-produtos", () -> {
+            try {
+                SnapshotBinario.carregarProdutos(binProdutos, aceitarGeracaoAnterior, produtoRepositorio);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            try {
+                SnapshotBinario.carregarClientes(binClientes, aceitarGeracaoAnterior, clientesRepositorio);
+            } finally {
+                aguardar(produtos);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Executa a tarefa numa thread própria (daemon).
+     */
+    private static CompletableFuture<Void> emParalelo(String nome, Runnable tarefa) {
+        return CompletableFuture.runAsync(tarefa, r -> {
+            Thread t = new Thread(r, nome);
+            t.setDaemon(true);
+            t.start();
+        });
+    }
+
+    /**
+     * Espera a tarefa e relança a exceção original dela.
+     */
+    private static void aguardar(CompletableFuture<Void> tarefa) {
+        try {
+            tarefa.join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return true se todos os arquivos foram gravados
+     */
+    private boolean salvarSnapshots() {
+        if (!snapshotBinario) {
+            boolean clientesSalvos = clientesRepositorio.salvarParaArquivo();
+            return produtoRepositorio.salvarParaArquivo() && clientesSalvos;
+        }
+        try {
+            SnapshotBinario.salvarClientes(clientesRepositorio.listarTodos(),
+                    SnapshotBinario.nomeBinario(clientesRepositorio.getNomeArquivo()));
+            SnapshotBinario.salvarProdutos(produtoRepositorio.listarTodos(),
+                    SnapshotBinario.nomeBinario(produtoRepositorio.getNomeArquivo()));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar snapshot binário: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ========== DIÁRIO DE OPERAÇÕES ==========
+
+    /**
+     * Produto do lote pelo código, buscando no repositório só na primeira vez
+     * (inclusive códigos inexistentes, guardados como null).
+     */
+    private Produto produtoDoLote(int codigo, IndiceInt posicoes, List<Produto> produtos) {
+        int posicao = posicoes.buscar(codigo);
+        if (posicao >= 0) {
+            return produtos.get(posicao);
+        }
+        Produto produto = buscarProdutoPorCodigo(codigo);
+        posicoes.colocar(codigo, produtos.size());
+        produtos.add(produto);
+        return produto;
+    }
+
+    private static boolean debitarSemExcecao(Conta conta, long valor) {
+        if (valor == 0) {
+            return true;
+        }
+        try {
+            return conta.debitar(valor);
+        } catch (SaldoInsuficienteException e) {
+            return false;
+        }
+    }
+
+    private void registrarNoDiario(String registro, boolean sincronizar) {
+        if (diario == null) {
+            return;
+        }
+        long sequencia = diario.registrar(registro);
+        if (sincronizar) {
+            diario.sincronizar(sequencia);
+        }
+    }
+
+    /**
+     * Compacta o diário quando ele passa do limite. O limite cresce com o
+     * histórico de vendas (que é reescrito a cada compactação), mantendo o
+     * custo amortizado constante por operação. Deve ser chamado fora da
+     * trava de leitura, pois a compactação precisa da trava de escrita.
+     */
+    private void compactarSeNecessario() {
+        if (diario != null && diario.getRegistrosDesdeCompactacao() >= limiteCompactacao()) {
+            travaDiario.writeLock().lock();
+            try {
+                if (diario.getRegistrosDesdeCompactacao() >= limiteCompactacao()) {
+                    salvarDados();
+                }
+            } finally {
+                travaDiario.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Soma a venda finalizada aos totais dos relatórios, à partição do seu dia
+     * e às colunas de itens.
+     */
+    private void registrarFinalizada(Venda venda) {
+        agregados.registrar(venda);
+        periodos.registrar(venda);
+        if (itensColunares) {
+            usarColunas(venda);
+        }
+    }
+
+    private void usarColunas(Venda venda) {
+        itensFinalizados.registrar(venda);
+        venda.usarItensColunares(itensFinalizados.itensDaVenda(venda.getCodigo(), this::buscarProdutoPorCodigo));
+    }
+
+    private boolean cancelar(Venda venda) {
+        travaDiario.readLock().lock();
+        try {
+            synchronized (venda) {
+                if (!venda.cancelar()) {
+                    return false;
+                }
+                vendas.remover(venda);
+                vendasCanceladas.increment();
+                registrarNoDiario("K;" + venda.getCodigo(), false);
+                return true;
+            }
+        } finally {
+            travaDiario.readLock().unlock();
+        }
+    }
+
+    private int limiteCompactacao() {
+        return Math.max(LIMITE_COMPACTACAO, vendas.tamanho());
+    }
+
+    private static String registroInicioVenda(Venda venda) {
+        return "I;" + venda.getCodigo() + ";" + venda.getCliente().getIdentificador() + ";"
+                + venda.getData().getTime();
+    }
+
+    /**
+     * Item com o preço unitário registrado, para que a reprodução não dependa
+     * do preço atual do produto.
+     */
+    private static String registroItem(int codigoVenda, ItemVenda item) {
+        return "A;" + codigoVenda + ";" + item.getProduto().getCodigo() + ";" + item.getQuantidade() + ";"
+                + Dinheiro.formatar(item.getPrecoUnitario());
+    }
+
+    /**
+     * Quantidade e valor de cada tipo de movimento da conta, na ordem de
+     * {@link ExtratoConta.TipoMovimento}.
+     */
+    private static String registroTotaisExtrato(Cliente cliente) {
+        StringBuilder sb = new StringBuilder("M;").append(cliente.getIdentificador());
+        for (ExtratoConta.TipoMovimento tipo : ExtratoConta.TipoMovimento.values()) {
+            sb.append(';').append(cliente.getConta().quantidadeMovimentos(tipo)).append(';');
+            Dinheiro.formatar(cliente.getConta().valorMovimentado(tipo), sb);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Monta os registros que substituem o diário na compactação.
+     *
+     * @param completo se true inclui clientes, produtos e saldos (estado inteiro);
+     *                 se false apenas o histórico de vendas
+     */
+    private List<String> registrosPontoVerificacao(boolean completo) {
+        List<String> registros = new ArrayList<>();
+        if (!completo) {
+            registros.add(snapshotBinario ? BASE_BINARIA : BASE_TEXTO);
+        }
+        if (completo) {
+            for (Produto p : produtoRepositorio.listarTodos()) {
+                registros.add("P;" + p.toLineString());
+            }
+            for (Cliente c : clientesRepositorio.listarTodos()) {
+                registros.add("C;" + c.toLineString());
+                registros.add("S;" + c.getIdentificador() + ";"
+                        + Dinheiro.formatar(c.getConta().getSaldoCentavos()));
+            }
+        }
+        // Contadores dos extratos (os .txt guardam só o saldo)
+        for (Cliente c : clientesRepositorio.listarTodos()) {
+            if (c.getConta().temMovimentos()) {
+                registros.add(registroTotaisExtrato(c));
+            }
+        }
+        for (Venda venda : vendas.listar()) {
+            registros.add(registroInicioVenda(venda));
+            for (ItemVenda item : venda.getItens()) {
+                registros.add(registroItem(venda.getCodigo(), item));
+            }
+            if (venda.isFinalizada()) {
+                registros.add("R;" + venda.getCodigo());
+            }
+        }
+        return registros;
+    }
+
+    /**
+     * Reaplica sobre os dados carregados as operações gravadas no diário.
+     * Registros inválidos (ex.: última linha truncada) são ignorados.
+     */
+    private void reproduzirDiario(List<String> registros) {
+        LeitorRegistro leitor = new LeitorRegistro();
+        for (String registro : registros) {
+            try {
+                aplicarRegistro(registro, leitor);
+            } catch (Exception e) {
+                System.err.println("Erro ao reproduzir registro do diário: " + registro);
+            }
+        }
+    }
+
+    /**
+     * Aplica um registro do diário. Os campos (depois do prefixo "X;") são
+     * lidos pelo cursor reaproveitado entre os registros.
+     */
+    private void aplicarRegistro(String registro, LeitorRegistro leitor) {
+        LeitorRegistro campos = leitor.separar(registro, 2, registro.length());
+        switch (registro.charAt(0)) {
+            case 'C': {
+                Cliente c = campos.cliente();
+                if (c != null) {
+                    clientesRepositorio.adicionar(c.getIdentificador(), c);
+                }
+                break;
+            }
+            case 'P': {
+                Produto p = campos.produto(0);
+                produtoRepositorio.adicionar(String.valueOf(p.getCodigo()), p);
+                break;
+            }
+            case 'B':
+                // Base do diário compactado, verificada antes do carregamento
+                break;
+            case 'S':
+                buscarClientePorIdentificador(campos.texto(0)).getConta().definirSaldo(campos.centavos(1));
+                break;
+            case 'M': {
+                ExtratoConta extrato = buscarClientePorIdentificador(campos.texto(0)).getConta().getExtrato();
+                ExtratoConta.TipoMovimento[] tipos = ExtratoConta.TipoMovimento.values();
+                for (int i = 0; i < tipos.length && 2 * i + 2 < campos.quantidadeCampos(); i++) {
+                    extrato.definirTotais(tipos[i], campos.inteiroLongo(2 * i + 1), campos.centavos(2 * i + 2));
+                }
+                break;
+            }
+            case 'D':
+                buscarClientePorIdentificador(campos.texto(0)).getConta()
+                        .reproduzir(ExtratoConta.TipoMovimento.DEPOSITO, campos.centavos(1));
+                break;
+            case 'L':
+                // Débito único de um lote; as vendas pagas por ele vêm como R
+                buscarClientePorIdentificador(campos.texto(0)).getConta()
+                        .reproduzir(ExtratoConta.TipoMovimento.DEBITO, campos.centavos(1));
+                break;
+            case 'I': {
+                int codigo = campos.inteiro(0);
+                Cliente cliente = buscarClientePorIdentificador(campos.texto(1));
+                if (cliente != null) {
+                    vendas.adicionar(new Venda(codigo, cliente, new Date(campos.inteiroLongo(2))));
+                    countCodigoVendas.accumulateAndGet(codigo + 1, Math::max);
+                } else {
+                    System.err.println("Venda " + codigo + " do diário ignorada: cliente não encontrado: "
+                            + campos.texto(1));
+                }
+                break;
+            }
+            case 'A': {
+                Venda venda = buscarVendaPorCodigo(campos.inteiro(0));
+                Produto produto = buscarProdutoPorCodigo(campos.inteiro(1));
+                if (venda != null && produto != null) {
+                    int quantidade = campos.inteiro(2);
+                    // Registros antigos não têm o preço: usa o atual do produto
+                    venda.adicionarItem(campos.quantidadeCampos() > 3
+                            ? new ItemVenda(produto, quantidade, campos.centavos(3))
+                            : new ItemVenda(produto, quantidade));
+                }
+                break;
+            }
+            case 'Q': {
+                Venda venda = buscarVendaPorCodigo(campos.inteiro(0));
+                if (venda != null) {
+                    venda.alterarQuantidade(campos.inteiro(1), campos.inteiro(2));
+                }
+                break;
+            }
+            case 'X': {
+                Venda venda = buscarVendaPorCodigo(campos.inteiro(0));
+                if (venda != null) {
+                    venda.removerItem(campos.inteiro(1));
+                }
+                break;
+            }
+            case 'F': {
+                Venda venda = buscarVendaPorCodigo(campos.inteiro(0));
+                if (venda != null) {
+                    // O débito foi feito; diários antigos podem ter a mesma venda
+                    // finalizada duas vezes, mas ela só entra uma vez nos totais
+                    venda.getCliente().getConta()
+                            .reproduzir(ExtratoConta.TipoMovimento.DEBITO, campos.centavos(1));
+                    reproduzirFinalizacao(venda);
+                }
+                break;
+            }
+            case 'R': {
+                Venda venda = buscarVendaPorCodigo(campos.inteiro(0));
+                if (venda != null) {
+                    reproduzirFinalizacao(venda);
+                }
+                break;
+            }
+            case 'K': {
+                Venda venda = buscarVendaPorCodigo(campos.inteiro(0));
+                if (venda != null && venda.cancelar()) {
+                    vendas.remover(venda);
+                }
+                break;
+            }
+            default:
+                System.err.println("Registro desconhecido no diário: " + registro);
+        }
+    }
+
+    private void reproduzirFinalizacao(Venda venda) {
+        if (venda.isAberta()) {
+            venda.marcarFinalizada();
+            vendas.finalizar(venda);
+            registrarFinalizada(venda);
+        }
+    }
 }
@@ -0,0 +1,310 @@
+package dominio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Modo particionado do sistema: clientes e suas vendas são divididos entre
+ * N {@link SistemaVendas} independentes pelo hash do identificador do
+ * cliente, cada um com seus próprios arquivos (clientes, produtos e diário)
+ * e sua própria thread. O catálogo de produtos é replicado em todas as
+ * partições, então cada venda é resolvida inteira na partição do cliente.
+ *
+ * Cada partição gera códigos de venda numa faixa própria, de modo que o
+ * código indica a partição dona. Operações de um cliente ou de uma venda vão
+ * direto para a partição dona; carregar, salvar, lotes e relatórios rodam em
+ * todas as partições ao mesmo tempo e os resultados são juntados
+ * ({@link RelatorioVendasParticionado}).
+ *
+ * Todas as partições podem rodar no mesmo processo (ex.: em testes). A
+ * quantidade de partições não pode mudar depois que os arquivos forem gravados.
+ */
+public class SistemaVendasParticionado implements AutoCloseable {
+    private SistemaVendas[] particoes;
+    private ExecutorService[] executores;
+    private int faixaCodigos;
+
+    /**
+     * @param diretorio pasta com os arquivos de cada partição i
+     *                  ({@code clientes-i.txt}, {@code produtos-i.txt} e {@code diario-i.log})
+     */
+    public SistemaVendasParticionado(String diretorio, int quantidadeParticoes) {
+        if (quantidadeParticoes <= 0) {
+            throw new IllegalArgumentException("Quantidade de partições deve ser positiva.");
+        }
+        File pasta = new File(diretorio);
+        pasta.mkdirs();
+        this.particoes = new SistemaVendas[quantidadeParticoes];
+        this.executores = new ExecutorService[quantidadeParticoes];
+        this.faixaCodigos = Integer.MAX_VALUE / quantidadeParticoes;
+        for (int i = 0; i < quantidadeParticoes; i++) {
+            particoes[i] = new SistemaVendas(new File(pasta, "clientes-" + i + ".txt").getPath(),
+                    new File(pasta, "produtos-" + i + ".txt").getPath(),
+                    new File(pasta, "diario-" + i + ".log").getPath());
+            particoes[i].iniciarCodigosVendaEm(i * faixaCodigos + 1);
+            String nome = "particao-" + i;
+            executores[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, nome);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public int getQuantidadeParticoes() {
+        return particoes.length;
+    }
+
+    public SistemaVendas getParticao(int indice) {
+        return particoes[indice];
+    }
+
+    /**
+     * Partição dona do cliente (e das suas vendas).
+     */
+    public int particaoDoCliente(String identificador) {
+        return Math.floorMod(identificador.hashCode(), particoes.length);
+    }
+
+    /**
+     * Partição que gerou o código de venda.
+     */
+    public int particaoDaVenda(int codigoVenda) {
+        return Math.min(Math.max(codigoVenda - 1, 0) / faixaCodigos, particoes.length - 1);
+    }
+
+    // ========== CADASTROS ==========
+
+    public boolean cadastrarCliente(Cliente cliente) {
+        return doCliente(cliente.getIdentificador()).cadastrarCliente(cliente);
+    }
+
+    /**
+     * Cadastra o produto em todas as partições. Cada partição recebe sua
+     * própria cópia, como se estivesse em outro processo.
+     */
+    public boolean cadastrarProduto(Produto produto) {
+        if (!particoes[0].cadastrarProduto(produto)) {
+            return false;
+        }
+        for (int i = 1; i < particoes.length; i++) {
+            particoes[i].cadastrarProduto(Produto.fromString(produto.toLineString()));
+        }
+        return true;
+    }
+
+    /**
+     * Importa o arquivo de produtos em todas as partições ao mesmo tempo.
+     *
+     * @return resultado da importação na primeira partição (as demais leem o mesmo arquivo)
+     */
+    public ResultadoImportacao importarProdutos(String arquivo) throws IOException {
+        try {
+            return emCada(i -> {
+                try {
+                    return particoes[i].importarProdutos(arquivo);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).get(0);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public Cliente buscarClientePorIdentificador(String identificador) {
+        return doCliente(identificador).buscarClientePorIdentificador(identificador);
+    }
+
+    public Produto buscarProdutoPorCodigo(int codigo) {
+        return particoes[0].buscarProdutoPorCodigo(codigo);
+    }
+
+    public boolean depositar(String identificadorCliente, long valor) {
+        return doCliente(identificadorCliente).depositar(identificadorCliente, valor);
+    }
+
+    /**
+     * Clientes de todas as partições (partição a partição, na ordem de cadastro de cada uma).
+     */
+    public List<Cliente> listarClientes() {
+        List<Cliente> clientes = new ArrayList<>();
+        for (SistemaVendas particao : particoes) {
+            clientes.addAll(particao.listarClientes());
+        }
+        return clientes;
+    }
+
+    public List<Produto> listarProdutos() {
+        return particoes[0].listarProdutos();
+    }
+
+    // ========== VENDAS ==========
+
+    public Venda iniciarNovaVenda(String identificadorCliente) {
+        return doCliente(identificadorCliente).iniciarNovaVenda(identificadorCliente);
+    }
+
+    public Venda buscarVendaPorCodigo(int codigo) {
+        return daVenda(codigo).buscarVendaPorCodigo(codigo);
+    }
+
+    public boolean adicionarItemAVenda(int codigoVenda, int codigoProduto, int quantidade) {
+        return daVenda(codigoVenda).adicionarItemAVenda(codigoVenda, codigoProduto, quantidade);
+    }
+
+    public boolean removerItemDaVenda(int codigoVenda, int codigoProduto) {
+        return daVenda(codigoVenda).removerItemDaVenda(codigoVenda, codigoProduto);
+    }
+
+    public boolean alterarQuantidadeItem(int codigoVenda, int codigoProduto, int quantidade) {
+        return daVenda(codigoVenda).alterarQuantidadeItem(codigoVenda, codigoProduto, quantidade);
+    }
+
+    public boolean finalizarVenda(int codigoVenda) throws SaldoInsuficienteException {
+        return daVenda(codigoVenda).finalizarVenda(codigoVenda);
+    }
+
+    public boolean cancelarVenda(int codigoVenda) {
+        return daVenda(codigoVenda).cancelarVenda(codigoVenda);
+    }
+
+    /**
+     * Cancela as vendas abandonadas de todas as partições.
+     *
+     * @return quantidade de vendas canceladas
+     */
+    public int expirarVendasAbertas(long inativaHaMs) {
+        int canceladas = 0;
+        for (int quantidade : emCada(i -> particoes[i].expirarVendasAbertas(inativaHaMs))) {
+            canceladas += quantidade;
+        }
+        return canceladas;
+    }
+
+    /**
+     * Separa os pedidos pela partição do cliente e processa cada parte na
+     * sua partição, todas ao mesmo tempo.
+     *
+     * @return um resultado por pedido, na ordem recebida
+     */
+    public List<ResultadoPedido> processarLote(List<PedidoVenda> pedidos) {
+        List<List<PedidoVenda>> partes = new ArrayList<>(particoes.length);
+        List<List<Integer>> posicoes = new ArrayList<>(particoes.length);
+        for (int i = 0; i < particoes.length; i++) {
+            partes.add(new ArrayList<>());
+            posicoes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < pedidos.size(); i++) {
+            int particao = particaoDoCliente(pedidos.get(i).getIdentificadorCliente());
+            partes.get(particao).add(pedidos.get(i));
+            posicoes.get(particao).add(i);
+        }
+        List<List<ResultadoPedido>> resultadosPorParticao = emCada(i -> partes.get(i).isEmpty()
+                ? new ArrayList<ResultadoPedido>()
+                : particoes[i].processarLote(partes.get(i)));
+        ResultadoPedido[] resultados = new ResultadoPedido[pedidos.size()];
+        for (int i = 0; i < particoes.length; i++) {
+            List<ResultadoPedido> daParticao = resultadosPorParticao.get(i);
+            for (int j = 0; j < daParticao.size(); j++) {
+                resultados[posicoes.get(i).get(j)] = daParticao.get(j);
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    // ========== DADOS E RELATÓRIOS ==========
+
+    /**
+     * Carrega todas as partições ao mesmo tempo.
+     */
+    public void carregarDados() {
+        emCada(i -> {
+            particoes[i].carregarDados();
+            return null;
+        });
+    }
+
+    /**
+     * Salva todas as partições ao mesmo tempo.
+     *
+     * @return false se alguma partição não foi gravada
+     */
+    public boolean salvarDados() {
+        boolean salvos = true;
+        for (boolean salvo : emCada(i -> particoes[i].salvarDados())) {
+            salvos &= salvo;
+        }
+        return salvos;
+    }
+
+    /**
+     * Relatório que consulta todas as partições e junta os resultados.
+     */
+    public RelatorioVendasParticionado gerarRelatorio() {
+        List<RelatorioVendas> partes = emCada(i -> particoes[i].gerarRelatorio());
+        return new RelatorioVendasParticionado(this, partes);
+    }
+
+    /**
+     * Encerra as threads das partições (não salva os dados).
+     */
+    @Override
+    public void close() {
+        for (ExecutorService executor : executores) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Executa a tarefa de cada partição na thread da partição e aguarda
+     * todas. Resultados na ordem das partições.
+     */
+    <T> List<T> emCada(IntFunction<T> tarefa) {
+        List<Future<T>> futuros = new ArrayList<>(particoes.length);
+        for (int i = 0; i < particoes.length; i++) {
+            int particao = i;
+            futuros.add(executores[i].submit(() -> tarefa.apply(particao)));
+        }
+        List<T> resultados = new ArrayList<>(particoes.length);
+        for (Future<T> futuro : futuros) {
+            resultados.add(aguardar(futuro));
+        }
+        return resultados;
+    }
+
+    private SistemaVendas doCliente(String identificador) {
+        return particoes[particaoDoCliente(identificador)];
+    }
+
+    private SistemaVendas daVenda(int codigoVenda) {
+        return particoes[particaoDaVenda(codigoVenda)];
+    }
+
+    private static <T> T aguardar(Future<T> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando uma partição.", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package dominio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binário compacto para salvar/carregar produtos e clientes,
+ * alternativo ao texto de {@link Persistivel#toLineString()}.
+ *
+ * Layout: cabeçalho (magic int, versão byte, tipo byte, quantidade int) seguido
+ * dos registros, cada um prefixado pelo seu comprimento em bytes (int), e de
+ * um rodapé (magic int, CRC32C int de tudo o que vem antes).
+ * A leitura usa um {@link FileChannel} mapeado em memória.
+ *
+ * A gravação segue o {@link ArquivoSnapshot}: arquivo temporário sincronizado
+ * em disco e renomeado sobre o atual, mantendo as gerações ".1", ".2", ...;
+ * a leitura valida o checksum e pode usar a geração anterior mais recente
+ * que confira.
+ */
+public class SnapshotBinario {
+    public static final int MAGIC = 0x53564E42; // "SVNB"
+    /**
+     * Versão 3: com rodapé de checksum. As versões 2 (centavos, sem rodapé) e
+     * 1 (valores em double) ainda são lidas.
+     */
+    public static final byte VERSAO = 3;
+    public static final byte TIPO_PRODUTOS = 1;
+    public static final byte TIPO_CLIENTES = 2;
+
+    private static final int MAGIC_RODAPE = 0x53564352; // "SVCR"
+    private static final int TAMANHO_CABECALHO = 10;
+    private static final int TAMANHO_RODAPE = 8;
+    private static final int TAMANHO_BUFFER = 1 << 20;
+    /** Tamanho máximo de cada região mapeada (arquivos maiores são remapeados). */
+    private static final long JANELA_MAPEAMENTO = 1L << 28;
+    /** Textos são prefixados por um short sem sinal. */
+    private static final int TAMANHO_MAXIMO_TEXTO = 0xFFFF;
+
+    private static final byte CLIENTE_PF = 0;
+    private static final byte CLIENTE_PJ = 1;
+
+    private SnapshotBinario() {
+    }
+
+    // ========== GRAVAÇÃO ==========
+
+    public static void salvarProdutos(Collection<Produto> produtos, String arquivo) throws IOException {
+        try (Escritor escritor = new Escritor(arquivo, TIPO_PRODUTOS, produtos.size())) {
+            for (Produto p : produtos) {
+                byte[] nome = bytesTexto(p.getNome());
+                ByteBuffer registro = escritor.iniciarRegistro(4 + 8 + 1 + 2 + nome.length);
+                registro.putInt(p.getCodigo());
+                registro.putLong(p.getPrecoCentavos());
+                registro.put((byte) p.getTipo().ordinal());
+                putTexto(registro, nome);
+            }
+            escritor.concluir();
+        }
+    }
+
+    public static void salvarClientes(Collection<Cliente> clientes, String arquivo) throws IOException {
+        try (Escritor escritor = new Escritor(arquivo, TIPO_CLIENTES, clientes.size())) {
+            for (Cliente c : clientes) {
+                byte[] id = bytesTexto(c.getIdentificador());
+                byte[] nome = bytesTexto(c.getNome());
+                byte[] email = bytesTexto(c.getEmail());
+                byte[] razao = c instanceof ClientePJ ? bytesTexto(((ClientePJ) c).getRazaoSocial()) : null;
+                int tamanho = 1 + 2 + id.length + 2 + nome.length + 2 + email.length + 4 + 8
+                        + (razao != null ? 2 + razao.length : 0);
+                ByteBuffer registro = escritor.iniciarRegistro(tamanho);
+                registro.put(razao != null ? CLIENTE_PJ : CLIENTE_PF);
+                putTexto(registro, id);
+                putTexto(registro, nome);
+                putTexto(registro, email);
+                if (razao != null) {
+                    putTexto(registro, razao);
+                }
+                registro.putInt(c.getConta().getNumero());
+                registro.putLong(c.getConta().getSaldoCentavos());
+            }
+            escritor.concluir();
+        }
+    }
+
+    // ========== LEITURA ==========
+
+    /**
+     * Carrega os produtos do arquivo binário para o repositório: o arquivo
+     * atual ou, se ele for inválido, a geração anterior mais recente válida.
+     *
+     * @return quantidade de produtos lidos
+     */
+    public static int carregarProdutos(String arquivo, Repositorio<Produto> destino) throws IOException {
+        return carregarProdutos(arquivo, true, destino);
+    }
+
+    /**
+     * Como {@link #carregarProdutos(String, Repositorio)}; com
+     * {@code aceitarGeracaoAnterior} false só o arquivo atual serve.
+     */
+    public static int carregarProdutos(String arquivo, boolean aceitarGeracaoAnterior, Repositorio<Produto> destino)
+            throws IOException {
+        return carregar(arquivo, TIPO_PRODUTOS, aceitarGeracaoAnterior, destino, leitor -> {
+            TipoProduto[] tipos = TipoProduto.values();
+            for (int i = 0; i < leitor.quantidade; i++) {
+                ByteBuffer registro = leitor.proximoRegistro();
+                int codigo = registro.getInt();
+                long preco = leitor.lerValor(registro);
+                TipoProduto tipo = tipos[registro.get()];
+                String nome = getTexto(registro);
+                destino.adicionar(String.valueOf(codigo), new Produto(codigo, nome, preco, tipo));
+            }
+        });
+    }
+
+    /**
+     * Carrega os clientes (e suas contas) do arquivo binário para o
+     * repositório: o arquivo atual ou, se ele for inválido, a geração anterior
+     * mais recente válida.
+     *
+     * @return quantidade de clientes lidos
+     */
+    public static int carregarClientes(String arquivo, Repositorio<Cliente> destino) throws IOException {
+        return carregarClientes(arquivo, true, destino);
+    }
+
+    /**
+     * Como {@link #carregarClientes(String, Repositorio)}; com
+     * {@code aceitarGeracaoAnterior} false só o arquivo atual serve.
+     */
+    public static int carregarClientes(String arquivo, boolean aceitarGeracaoAnterior, Repositorio<Cliente> destino)
+            throws IOException {
+        return carregar(arquivo, TIPO_CLIENTES, aceitarGeracaoAnterior, destino, leitor -> {
+            for (int i = 0; i < leitor.quantidade; i++) {
+                ByteBuffer registro = leitor.proximoRegistro();
+                byte tipo = registro.get();
+                String id = getTexto(registro);
+                String nome = getTexto(registro);
+                String email = getTexto(registro);
+                String razao = tipo == CLIENTE_PJ ? getTexto(registro) : null;
+                Conta conta = new Conta(registro.getInt());
+                conta.definirSaldo(leitor.lerValor(registro));
+                Cliente c = tipo == CLIENTE_PJ
+                        ? new ClientePJ(nome, email, conta, id, razao)
+                        : new ClientePF(nome, email, conta, id);
+                destino.adicionar(id, c);
+            }
+        });
+    }
+
+    /**
+     * Lê o arquivo mais novo válido entre o atual e (se aceito) as gerações
+     * anteriores. Um arquivo que falhar no meio é descartado do repositório
+     * antes de tentar o próximo.
+     *
+     * @throws IOException se o arquivo aceito não existir ou for inválido
+     */
+    private static int carregar(String arquivo, byte tipo, boolean aceitarGeracaoAnterior, Repositorio<?> destino,
+            LeituraRegistros leitura) throws IOException {
+        IOException ultimoErro = null;
+        int ultimaGeracao = aceitarGeracaoAnterior ? ArquivoSnapshot.GERACOES : 0;
+        for (int geracao = 0; geracao <= ultimaGeracao; geracao++) {
+            String nome = ArquivoSnapshot.nomeGeracao(arquivo, geracao);
+            if (!Files.exists(Paths.get(nome))) {
+                continue;
+            }
+            try (Leitor leitor = new Leitor(nome, tipo)) {
+                if (geracao > 0) {
+                    System.err.println("Arquivo " + arquivo + " inválido ou ausente; usando geração anterior: " + nome);
+                }
+                destino.reservarCapacidade(leitor.quantidade);
+                leitura.ler(leitor);
+                return leitor.quantidade;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Snapshot binário inválido: " + nome + " (" + e.getMessage() + ")");
+                ultimoErro = e instanceof IOException ? (IOException) e
+                        : new IOException("Snapshot binário inválido: " + nome, e);
+                destino.limpar();
+            }
+        }
+        throw ultimoErro != null ? ultimoErro : new IOException("Arquivo não encontrado: " + arquivo);
+    }
+
+    @FunctionalInterface
+    private interface LeituraRegistros {
+        void ler(Leitor leitor) throws IOException;
+    }
+
+    // ========== CONVERSÃO ==========
+
+    /**
+     * Converte um arquivo de texto existente (clientes.txt ou produtos.txt)
+     * para o formato binário.
+     *
+     * @param clientes true se o arquivo contém clientes, false se produtos
+     */
+    public static void converterDeTexto(String arquivoTexto, String arquivoBinario, boolean clientes)
+            throws IOException {
+        if (clientes) {
+            Repositorio<Cliente> repositorio = new Repositorio<>(arquivoTexto);
+            List<String> linhas = repositorio.carregarLinhasDoArquivo();
+            repositorio.reservarCapacidade(linhas.size());
+            for (String linha : linhas) {
+                Cliente c = Cliente.fromString(linha);
+                if (c != null) {
+                    repositorio.adicionar(c.getIdentificador(), c);
+                }
+            }
+            salvarClientes(repositorio.listarTodos(), arquivoBinario);
+        } else {
+            Repositorio<Produto> repositorio = new Repositorio<>(arquivoTexto);
+            List<String> linhas = repositorio.carregarLinhasDoArquivo();
+            repositorio.reservarCapacidade(linhas.size());
+            for (String linha : linhas) {
+                Produto p = Produto.fromString(linha);
+                repositorio.adicionar(String.valueOf(p.getCodigo()), p);
+            }
+            salvarProdutos(repositorio.listarTodos(), arquivoBinario);
+        }
+    }
+
+    /**
+     * Nome do arquivo binário correspondente a um arquivo de texto
+     * (ex.: produtos.txt -> produtos.bin).
+     */
+    public static String nomeBinario(String arquivoTexto) {
+        return arquivoTexto.endsWith(".txt")
+                ? arquivoTexto.substring(0, arquivoTexto.length() - 4) + ".bin"
+                : arquivoTexto + ".bin";
+    }
+
+    /**
+     * Converte os arquivos padrão: java dominio.SnapshotBinario [clientes.txt] [produtos.txt]
+     */
+    public static void main(String[] args) throws IOException {
+        String clientes = args.length > 0 ? args[0] : "clientes.txt";
+        String produtos = args.length > 1 ? args[1] : "produtos.txt";
+        converterDeTexto(clientes, nomeBinario(clientes), true);
+        converterDeTexto(produtos, nomeBinario(produtos), false);
+        System.out.println("Convertidos: " + nomeBinario(clientes) + ", " + nomeBinario(produtos));
+    }
+
+    // ========== AUXILIARES ==========
+
+    /**
+     * Texto em UTF-8, recusando o que não cabe no prefixo de comprimento
+     * (a gravação é abortada e o arquivo anterior é mantido).
+     */
+    private static byte[] bytesTexto(String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > TAMANHO_MAXIMO_TEXTO) {
+            throw new IOException("Texto grande demais para o snapshot binário (" + bytes.length + " bytes, máximo "
+                    + TAMANHO_MAXIMO_TEXTO + ")");
+        }
+        return bytes;
+    }
+
+    private static void putTexto(ByteBuffer buffer, byte[] texto) {
+        buffer.putShort((short) texto.length);
+        buffer.put(texto);
+    }
+
+    private static String getTexto(ByteBuffer buffer) {
+        int tamanho = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[tamanho];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Grava o cabeçalho e os registros usando um buffer grande reaproveitado.
+     * Escreve em um arquivo temporário que só substitui o destino em
+     * {@link #concluir()}, com o rodapé de checksum e sincronizado em disco.
+     */
+    private static class Escritor implements AutoCloseable {
+        private FileChannel canal;
+        private ByteBuffer buffer;
+        private String arquivo;
+        private Path destino;
+        private Path temporario;
+        private CRC32C crc;
+        private boolean concluido;
+
+        Escritor(String arquivo, byte tipo, int quantidade) throws IOException {
+            this.arquivo = arquivo;
+            this.destino = Paths.get(arquivo);
+            this.crc = new CRC32C();
+            this.temporario = Paths.get(arquivo + ".tmp");
+            this.canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+            buffer.putInt(MAGIC);
+            buffer.put(VERSAO);
+            buffer.put(tipo);
+            buffer.putInt(quantidade);
+        }
+
+        /**
+         * Escreve o prefixo de comprimento e devolve o buffer pronto para o conteúdo.
+         */
+        ByteBuffer iniciarRegistro(int tamanho) throws IOException {
+            if (buffer.remaining() < 4 + tamanho) {
+                descarregar();
+                if (buffer.capacity() < 4 + tamanho) {
+                    buffer = ByteBuffer.allocateDirect(4 + tamanho);
+                }
+            }
+            buffer.putInt(tamanho);
+            return buffer;
+        }
+
+        private void descarregar() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Descarrega, grava o rodapé, sincroniza e renomeia o temporário sobre o
+         * destino, mantendo as gerações anteriores.
+         */
+        void concluir() throws IOException {
+            descarregar();
+            buffer.putInt(MAGIC_RODAPE);
+            buffer.putInt((int) crc.getValue());
+            descarregar();
+            canal.force(true);
+            canal.close();
+            ArquivoSnapshot.rotacionar(arquivo, ArquivoSnapshot.GERACOES);
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            ArquivoSnapshot.sincronizarDiretorio(destino);
+            concluido = true;
+        }
+
+        /**
+         * Sem {@link #concluir()} (erro no meio da gravação), descarta o
+         * temporário e mantém o arquivo anterior.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!concluido) {
+                canal.close();
+                Files.deleteIfExists(temporario);
+            }
+        }
+    }
+
+    /**
+     * Lê os registros por mapeamento em memória, remapeando em janelas
+     * para suportar arquivos maiores que 2 GB. Arquivos com rodapé são todo
+     * validados (checksum) antes do primeiro registro.
+     */
+    private static class Leitor implements AutoCloseable {
+        private FileChannel canal;
+        private long tamanhoArquivo; // Sem o rodapé
+        private long inicioJanela;
+        private MappedByteBuffer janela;
+        private byte versao;
+        int quantidade;
+
+        Leitor(String arquivo, byte tipoEsperado) throws IOException {
+            this.canal = FileChannel.open(Paths.get(arquivo), StandardOpenOption.READ);
+            this.tamanhoArquivo = canal.size();
+            mapear(0);
+            if (janela.remaining() < TAMANHO_CABECALHO || janela.getInt() != MAGIC) {
+                canal.close();
+                throw new IOException("Arquivo não é um snapshot binário: " + arquivo);
+            }
+            this.versao = janela.get();
+            byte tipo = janela.get();
+            if (versao < 1 || versao > VERSAO || tipo != tipoEsperado) {
+                canal.close();
+                throw new IOException("Versão ou tipo de snapshot não suportado em: " + arquivo);
+            }
+            this.quantidade = janela.getInt();
+            if (versao >= 3) {
+                try {
+                    validarRodape(arquivo);
+                } catch (IOException e) {
+                    canal.close();
+                    throw e;
+                }
+            }
+        }
+
+        /**
+         * Confere o checksum do rodapé com o conteúdo e passa a tratar o
+         * rodapé como fim do arquivo.
+         */
+        private void validarRodape(String arquivo) throws IOException {
+            long fimConteudo = tamanhoArquivo - TAMANHO_RODAPE;
+            if (fimConteudo < TAMANHO_CABECALHO) {
+                throw new IOException("Snapshot binário truncado: " + arquivo);
+            }
+            ByteBuffer rodape = ByteBuffer.allocate(TAMANHO_RODAPE);
+            while (rodape.hasRemaining()) {
+                if (canal.read(rodape, fimConteudo + rodape.position()) < 0) {
+                    throw new IOException("Snapshot binário truncado: " + arquivo);
+                }
+            }
+            rodape.flip();
+            if (rodape.getInt() != MAGIC_RODAPE) {
+                throw new IOException("Snapshot binário sem rodapé (truncado?): " + arquivo);
+            }
+            int crcEsperado = rodape.getInt();
+            CRC32C crc = new CRC32C();
+            for (long posicao = 0; posicao < fimConteudo; posicao += JANELA_MAPEAMENTO) {
+                long tamanho = Math.min(JANELA_MAPEAMENTO, fimConteudo - posicao);
+                crc.update(canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanho));
+            }
+            if ((int) crc.getValue() != crcEsperado) {
+                throw new IOException("Checksum não confere em " + arquivo);
+            }
+            tamanhoArquivo = fimConteudo;
+            if (janela.limit() > fimConteudo) {
+                janela.limit((int) fimConteudo);
+            }
+        }
+
+        /**
+         * Devolve o buffer posicionado no início do próximo registro.
+         */
+        ByteBuffer proximoRegistro() throws IOException {
+            garantir(4);
+            int tamanho = janela.getInt();
+            garantir(tamanho);
+            return janela;
+        }
+
+        /**
+         * Lê um valor monetário em centavos conforme a versão do arquivo.
+         */
+        long lerValor(ByteBuffer registro) {
+            return versao >= 2 ? registro.getLong() : Math.round(registro.getDouble() * 100);
+        }
+
+        private void garantir(int bytes) throws IOException {
+            if (janela.remaining() < bytes) {
+                long posicao = inicioJanela + janela.position();
+                if (posicao + bytes > tamanhoArquivo) {
+                    throw new IOException("Snapshot binário truncado.");
+                }
+                mapear(posicao);
+            }
+        }
+
+        private void mapear(long posicao) throws IOException {
+            long tamanho = Math.min(JANELA_MAPEAMENTO, tamanhoArquivo - posicao);
+            this.inicioJanela = posicao;
+            this.janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanho);
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
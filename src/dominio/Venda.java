@@ -1,42 +1,213 @@
 package dominio;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Representa uma venda composta por itens, data e cliente responsável.
  * Permite calcular o total e finalizar debitando a conta do cliente.
+ * Alterações e finalização são sincronizadas na própria venda.
+ *
+ * Há um item por produto: adicionar de novo o mesmo produto soma a
+ * quantidade ao item existente, que mantém sua posição (ordem da primeira
+ * leitura, usada no recibo). Remover ou alterar um item é O(1): o item
+ * removido deixa um buraco na lista, fechado na próxima leitura dos itens.
+ *
+ * O total é mantido a cada alteração (leitura em O(1)). Só vendas
+ * {@link EstadoVenda#ABERTA abertas} aceitam alterações: depois de
+ * finalizada (ou cancelada) a venda fica selada e não é debitada de novo.
  */
 public class Venda {
+    /** Até esta quantidade de itens a busca por produto percorre a lista, sem índice. */
+    private static final int LIMITE_BUSCA_LINEAR = 8;
+
     private int codigo;
     private Date data;
     private Cliente cliente;
     private List<ItemVenda> itens;
+    // Código do produto -> posição em itens; criado só em vendas grandes
+    private IndiceInt posicoes;
+    private int removidos;
+    private volatile long total;
+    private volatile EstadoVenda estado;
+    private volatile long ultimaAlteracao;
 
     public Venda(int codigo, Cliente cliente) {
+        this(codigo, cliente, new Date());
+    }
+
+    /**
+     * Cria uma venda com data informada (usado ao reconstruir vendas do diário).
+     */
+    public Venda(int codigo, Cliente cliente, Date data) {
         this.codigo = codigo;
-        this.data = new Date();
+        this.data = data;
         this.cliente = cliente;
         this.itens = new ArrayList<>();
+        this.estado = EstadoVenda.ABERTA;
+        this.ultimaAlteracao = System.currentTimeMillis();
+    }
+
+    /**
+     * Adiciona o item com o preço atual do produto.
+     *
+     * @throws IllegalStateException se a venda não está aberta
+     */
+    public synchronized void adicionarItem(Produto produto, int quantidade) {
+        adicionarItem(new ItemVenda(produto, quantidade));
+    }
+
+    /**
+     * Adiciona um item já criado (ex.: com o preço registrado no diário). Se
+     * o produto já está na venda, soma a quantidade ao item existente, que
+     * mantém o preço unitário com que entrou.
+     *
+     * @throws IllegalStateException se a venda não está aberta
+     * @throws ArithmeticException se a quantidade ou o total estourarem (a venda não muda)
+     */
+    public synchronized void adicionarItem(ItemVenda item) {
+        verificarAberta();
+        int codigoProduto = item.getProduto().getCodigo();
+        int posicao = posicaoDoProduto(codigoProduto);
+        if (posicao < 0) {
+            long novoTotal = Math.addExact(total, item.calcularSubtotal());
+            itens.add(item);
+            if (posicoes != null) {
+                posicoes.colocar(codigoProduto, itens.size() - 1);
+            } else if (itens.size() > LIMITE_BUSCA_LINEAR) {
+                indexar();
+            }
+            total = novoTotal;
+        } else {
+            ItemVenda atual = itens.get(posicao);
+            substituir(posicao, atual.comQuantidade(Math.addExact(atual.getQuantidade(), item.getQuantidade())));
+        }
     }
 
-    public void adicionarItem(Produto produto, int quantidade) {
-        ItemVenda item = new ItemVenda(produto, quantidade);
-        this.itens.add(item);
+    /**
+     * Remove o item do produto.
+     *
+     * @return false se o produto não está na venda
+     * @throws IllegalStateException se a venda não está aberta
+     */
+    public synchronized boolean removerItem(int codigoProduto) {
+        verificarAberta();
+        int posicao = posicaoDoProduto(codigoProduto);
+        if (posicao < 0) {
+            return false;
+        }
+        total -= itens.get(posicao).calcularSubtotal();
+        itens.set(posicao, null);
+        removidos++;
+        if (posicoes != null) {
+            posicoes.remover(codigoProduto);
+        }
+        return true;
     }
 
-    public double calcularTotal() {
-        double total = 0.0;
-        for (ItemVenda item : itens) {
-            total += item.calcularSubtotal();
+    /**
+     * Troca a quantidade do item do produto, mantendo seu preço unitário.
+     *
+     * @return false se o produto não está na venda
+     * @throws IllegalArgumentException se a quantidade não for positiva
+     * @throws IllegalStateException se a venda não está aberta
+     * @throws ArithmeticException se o subtotal ou o total estourarem (a venda não muda)
+     */
+    public synchronized boolean alterarQuantidade(int codigoProduto, int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade deve ser positiva.");
+        }
+        verificarAberta();
+        int posicao = posicaoDoProduto(codigoProduto);
+        if (posicao < 0) {
+            return false;
         }
+        substituir(posicao, itens.get(posicao).comQuantidade(quantidade));
+        return true;
+    }
+
+    /**
+     * Item do produto ou null se ele não está na venda.
+     */
+    public synchronized ItemVenda getItemDoProduto(int codigoProduto) {
+        int posicao = posicaoDoProduto(codigoProduto);
+        return posicao < 0 ? null : itens.get(posicao);
+    }
+
+    /**
+     * Total em centavos (mantido a cada item adicionado).
+     */
+    public long calcularTotal() {
         return total;
     }
 
-    public boolean finalizarVenda() throws SaldoInsuficienteException {
-        double total = this.calcularTotal();
-        return cliente.getConta().debitar(total);
+    /**
+     * Debita o total da conta do cliente e finaliza a venda.
+     *
+     * @return false se a venda não está aberta (já finalizada ou cancelada:
+     *         nada é debitado) ou se o débito não foi feito
+     */
+    public synchronized boolean finalizarVenda() throws SaldoInsuficienteException {
+        if (estado != EstadoVenda.ABERTA) {
+            return false;
+        }
+        if (cliente.getConta().debitar(total)) {
+            this.estado = EstadoVenda.FINALIZADA;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancela a venda aberta; nada é debitado.
+     *
+     * @return false se a venda não estava aberta
+     */
+    public synchronized boolean cancelar() {
+        if (estado != EstadoVenda.ABERTA) {
+            return false;
+        }
+        this.estado = EstadoVenda.CANCELADA;
+        return true;
+    }
+
+    public EstadoVenda getEstado() {
+        return estado;
+    }
+
+    public boolean isAberta() {
+        return estado == EstadoVenda.ABERTA;
+    }
+
+    public boolean isFinalizada() {
+        return estado == EstadoVenda.FINALIZADA;
+    }
+
+    /**
+     * Momento (ms) da criação ou da última alteração de itens.
+     */
+    public long getUltimaAlteracao() {
+        return ultimaAlteracao;
+    }
+
+    /**
+     * Marca a venda como finalizada sem debitar (reprodução do diário).
+     */
+    void marcarFinalizada() {
+        this.estado = EstadoVenda.FINALIZADA;
+    }
+
+    /**
+     * Troca a lista de itens pela visão sobre o armazenamento colunar, liberando
+     * os objetos {@link ItemVenda}. Só para vendas finalizadas (seladas).
+     */
+    synchronized void usarItensColunares(List<ItemVenda> visao) {
+        this.itens = visao;
+        this.posicoes = null;
+        this.removidos = 0;
     }
 
     public int getCodigo() {
@@ -51,7 +222,73 @@ public class Venda {
         return data;
     }
 
-    public List<ItemVenda> getItens() {
-        return itens;
+    /**
+     * Itens da venda (somente leitura).
+     */
+    public synchronized List<ItemVenda> getItens() {
+        fecharBuracos();
+        return Collections.unmodifiableList(itens);
+    }
+
+    public synchronized int quantidadeItens() {
+        return itens.size() - removidos;
+    }
+
+    /**
+     * Item na posição informada (ordem em que foi adicionado).
+     */
+    public synchronized ItemVenda getItem(int posicao) {
+        fecharBuracos();
+        return itens.get(posicao);
+    }
+
+    // ========== AUXILIARES ==========
+
+    // Chamado no início de cada alteração de itens
+    private void verificarAberta() {
+        if (estado != EstadoVenda.ABERTA) {
+            throw new IllegalStateException("Venda " + codigo + " não está aberta (" + estado + ").");
+        }
+        ultimaAlteracao = System.currentTimeMillis();
+    }
+
+    private int posicaoDoProduto(int codigoProduto) {
+        if (posicoes != null) {
+            return posicoes.buscar(codigoProduto);
+        }
+        for (int i = 0; i < itens.size(); i++) {
+            ItemVenda item = itens.get(i);
+            if (item != null && item.getProduto().getCodigo() == codigoProduto) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void substituir(int posicao, ItemVenda novo) {
+        total = Math.addExact(total - itens.get(posicao).calcularSubtotal(), novo.calcularSubtotal());
+        itens.set(posicao, novo);
+    }
+
+    private void indexar() {
+        posicoes = new IndiceInt(itens.size() * 2);
+        for (int i = 0; i < itens.size(); i++) {
+            ItemVenda item = itens.get(i);
+            if (item != null) {
+                posicoes.colocar(item.getProduto().getCodigo(), i);
+            }
+        }
+    }
+
+    // Tira os itens removidos da lista, mantendo a ordem dos demais
+    private void fecharBuracos() {
+        if (removidos == 0) {
+            return;
+        }
+        itens.removeIf(Objects::isNull);
+        removidos = 0;
+        if (posicoes != null) {
+            indexar();
+        }
     }
 }
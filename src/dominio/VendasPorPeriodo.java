@@ -0,0 +1,328 @@
+package dominio;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vendas finalizadas particionadas por dia (pela data da venda), para
+ * consultas por período sem percorrer todas as vendas.
+ *
+ * Cada partição guarda código, instante e total de cada venda em vetores
+ * primitivos e mantém a soma do dia. Partições com mais de
+ * {@link #DIAS_ABERTOS} dia(s) de atraso em relação à venda mais recente são
+ * fechadas: os totais ficam calculados e os vetores reduzidos ao tamanho
+ * usado. Totais por dia ou mês não percorrem as vendas.
+ *
+ * As partições ficam sempre em memória: são só um índice (cerca de 20 bytes
+ * por venda) sobre as vendas, que continuam no {@link RegistroVendas}.
+ */
+public class VendasPorPeriodo {
+    /** Dias, antes do mais recente com vendas, cujas partições continuam abertas. */
+    public static final int DIAS_ABERTOS = 1;
+
+    private static final int CAPACIDADE_INICIAL = 64;
+
+    private ZoneId fuso;
+    private ConcurrentSkipListMap<Long, Particao> particoes;
+    private AtomicLong diaMaisRecente;
+    private volatile long[] diaEmCache; // {dia, início, fim} em milissegundos
+
+    public VendasPorPeriodo() {
+        this.fuso = ZoneId.systemDefault();
+        this.particoes = new ConcurrentSkipListMap<>();
+        this.diaMaisRecente = new AtomicLong(Long.MIN_VALUE);
+        this.diaEmCache = new long[] { Long.MIN_VALUE, 0, 0 };
+    }
+
+    /**
+     * Partições calculadas a partir de uma lista de vendas (só em memória).
+     */
+    public static VendasPorPeriodo de(Collection<Venda> vendas) {
+        VendasPorPeriodo periodos = new VendasPorPeriodo();
+        for (Venda venda : vendas) {
+            periodos.registrar(venda);
+        }
+        return periodos;
+    }
+
+    /**
+     * Adiciona uma venda finalizada à partição do seu dia. Deve ser chamado
+     * uma vez por venda.
+     */
+    public void registrar(Venda venda) {
+        registrar(venda.getCodigo(), venda.getData().getTime(), venda.calcularTotal());
+    }
+
+    /**
+     * @param instante data da venda em milissegundos
+     * @param total    total em centavos
+     */
+    public void registrar(int codigo, long instante, long total) {
+        long dia = dia(instante);
+        Particao particao = particoes.computeIfAbsent(dia, Particao::new);
+        long anterior = diaMaisRecente.getAndAccumulate(dia, Math::max);
+        long limite = Math.max(anterior, dia) - DIAS_ABERTOS;
+        // Venda atrasada em uma partição já fechada: reabre só para incluí-la
+        particao.adicionar(codigo, instante, total, dia < limite);
+        if (dia > anterior && anterior != Long.MIN_VALUE) {
+            for (Particao antiga : particoes.headMap(limite).values()) {
+                antiga.fechar();
+            }
+        }
+    }
+
+    /**
+     * Visita as vendas com data em [inicio, fim) (milissegundos), dia a dia em
+     * ordem; dentro do dia, na ordem de registro.
+     */
+    public void paraCadaVenda(long inicio, long fim, Visitante visitante) {
+        if (fim <= inicio) {
+            return;
+        }
+        for (Particao particao : particoes.subMap(dia(inicio), true, dia(fim - 1), true).values()) {
+            particao.visitar(inicio, fim, visitante);
+        }
+    }
+
+    /**
+     * Visita as vendas dos dias {@code inicio} a {@code fim}, inclusive.
+     */
+    public void paraCadaVenda(LocalDate inicio, LocalDate fim, Visitante visitante) {
+        paraCadaVenda(inicioDoDia(inicio), inicioDoDia(fim.plusDays(1)), visitante);
+    }
+
+    /**
+     * Códigos das vendas dos dias {@code inicio} a {@code fim}, inclusive, na
+     * mesma ordem de {@link #paraCadaVenda(LocalDate, LocalDate, Visitante)}.
+     */
+    public int[] codigosDasVendas(LocalDate inicio, LocalDate fim) {
+        NavigableMap<Long, Particao> selecionadas = intervalo(inicio, fim);
+        int[][] porDia = new int[selecionadas.size()][];
+        int total = 0;
+        int d = 0;
+        for (Particao particao : selecionadas.values()) {
+            porDia[d] = particao.codigos();
+            total += porDia[d++].length;
+        }
+        int[] codigos = new int[total];
+        int posicao = 0;
+        for (int[] dia : porDia) {
+            System.arraycopy(dia, 0, codigos, posicao, dia.length);
+            posicao += dia.length;
+        }
+        return codigos;
+    }
+
+    /**
+     * Totais de cada dia com vendas entre {@code inicio} e {@code fim}, inclusive.
+     */
+    public SortedMap<LocalDate, Totais> totaisPorDia(LocalDate inicio, LocalDate fim) {
+        SortedMap<LocalDate, Totais> resultado = new TreeMap<>();
+        for (Particao particao : intervalo(inicio, fim).values()) {
+            Totais totais = particao.totais();
+            if (totais.getQuantidadeVendas() > 0) {
+                resultado.put(LocalDate.ofEpochDay(particao.dia), totais);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Totais de cada mês com vendas entre {@code inicio} e {@code fim}, inclusive,
+     * somando os totais das partições de cada dia.
+     */
+    public SortedMap<YearMonth, Totais> totaisPorMes(LocalDate inicio, LocalDate fim) {
+        SortedMap<YearMonth, Totais> resultado = new TreeMap<>();
+        for (Map.Entry<LocalDate, Totais> dia : totaisPorDia(inicio, fim).entrySet()) {
+            resultado.merge(YearMonth.from(dia.getKey()), dia.getValue(), Totais::somar);
+        }
+        return resultado;
+    }
+
+    /**
+     * Soma das vendas entre {@code inicio} e {@code fim}, inclusive.
+     */
+    public Totais totalDoPeriodo(LocalDate inicio, LocalDate fim) {
+        Totais total = Totais.ZERO;
+        for (Particao particao : intervalo(inicio, fim).values()) {
+            total = total.somar(particao.totais());
+        }
+        return total;
+    }
+
+    public int quantidadeParticoes() {
+        return particoes.size();
+    }
+
+    // ========== AUXILIARES ==========
+
+    private NavigableMap<Long, Particao> intervalo(LocalDate inicio, LocalDate fim) {
+        return particoes.subMap(inicio.toEpochDay(), true, fim.toEpochDay(), true);
+    }
+
+    private long dia(long instante) {
+        long[] cache = diaEmCache;
+        if (instante >= cache[1] && instante < cache[2]) {
+            return cache[0];
+        }
+        LocalDate data = Instant.ofEpochMilli(instante).atZone(fuso).toLocalDate();
+        diaEmCache = new long[] { data.toEpochDay(), inicioDoDia(data), inicioDoDia(data.plusDays(1)) };
+        return data.toEpochDay();
+    }
+
+    private long inicioDoDia(LocalDate data) {
+        return data.atStartOfDay(fuso).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Vendas de um dia.
+     */
+    private class Particao {
+        private final long dia;
+        private int[] codigos;
+        private long[] instantes;
+        private long[] totais;
+        private int tamanho;
+        private long quantidadeVendas;
+        private long valorTotal;
+        private boolean fechada;
+        private volatile Totais totaisFechados;
+
+        Particao(long dia) {
+            this.dia = dia;
+            this.codigos = new int[CAPACIDADE_INICIAL];
+            this.instantes = new long[CAPACIDADE_INICIAL];
+            this.totais = new long[CAPACIDADE_INICIAL];
+        }
+
+        /**
+         * @param fechar se a partição deve ficar (ou continuar) fechada
+         */
+        synchronized void adicionar(int codigo, long instante, long total, boolean fechar) {
+            if (tamanho == codigos.length) {
+                int capacidade = Math.max(CAPACIDADE_INICIAL, tamanho * 2);
+                codigos = Arrays.copyOf(codigos, capacidade);
+                instantes = Arrays.copyOf(instantes, capacidade);
+                totais = Arrays.copyOf(totais, capacidade);
+            }
+            codigos[tamanho] = codigo;
+            instantes[tamanho] = instante;
+            totais[tamanho] = total;
+            tamanho++;
+            quantidadeVendas++;
+            valorTotal += total;
+            totaisFechados = null;
+            fechada = false;
+            if (fechar) {
+                fechar();
+            }
+        }
+
+        /**
+         * Fecha a partição: calcula os totais e reduz os vetores ao tamanho usado.
+         */
+        synchronized void fechar() {
+            if (fechada) {
+                return;
+            }
+            fechada = true;
+            codigos = Arrays.copyOf(codigos, tamanho);
+            instantes = Arrays.copyOf(instantes, tamanho);
+            totais = Arrays.copyOf(totais, tamanho);
+            totaisFechados = new Totais(quantidadeVendas, valorTotal);
+        }
+
+        Totais totais() {
+            Totais calculados = totaisFechados;
+            if (calculados != null) {
+                return calculados;
+            }
+            synchronized (this) {
+                return new Totais(quantidadeVendas, valorTotal);
+            }
+        }
+
+        synchronized int[] codigos() {
+            return Arrays.copyOf(codigos, tamanho);
+        }
+
+        void visitar(long inicio, long fim, Visitante visitante) {
+            int[] codigosCopia;
+            long[] instantesCopia;
+            long[] totaisCopia;
+            int quantidade;
+            synchronized (this) {
+                quantidade = tamanho;
+                // Partições fechadas não mudam: os vetores podem ser lidos fora da trava
+                codigosCopia = fechada ? codigos : Arrays.copyOf(codigos, tamanho);
+                instantesCopia = fechada ? instantes : Arrays.copyOf(instantes, tamanho);
+                totaisCopia = fechada ? totais : Arrays.copyOf(totais, tamanho);
+            }
+            for (int i = 0; i < quantidade; i++) {
+                if (instantesCopia[i] >= inicio && instantesCopia[i] < fim) {
+                    visitante.visitar(codigosCopia[i], instantesCopia[i], totaisCopia[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recebe cada venda de uma consulta por período.
+     */
+    @FunctionalInterface
+    public interface Visitante {
+        /**
+         * @param instante data da venda em milissegundos
+         * @param total    total em centavos
+         */
+        void visitar(int codigo, long instante, long total);
+    }
+
+    /**
+     * Quantidade e valor (em centavos) das vendas de um período.
+     */
+    public static class Totais {
+        public static final Totais ZERO = new Totais(0, 0);
+
+        private long quantidadeVendas;
+        private long valorTotal;
+
+        public Totais(long quantidadeVendas, long valorTotal) {
+            this.quantidadeVendas = quantidadeVendas;
+            this.valorTotal = valorTotal;
+        }
+
+        public long getQuantidadeVendas() {
+            return quantidadeVendas;
+        }
+
+        public long getValorTotal() {
+            return valorTotal;
+        }
+
+        /** Valor médio por venda em centavos. */
+        public long getMedia() {
+            return Dinheiro.dividir(valorTotal, quantidadeVendas);
+        }
+
+        public Totais somar(Totais outro) {
+            return new Totais(quantidadeVendas + outro.quantidadeVendas, valorTotal + outro.valorTotal);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Vendas: %d | Total: R$ %s | Média: R$ %s", quantidadeVendas,
+                    Dinheiro.formatar(valorTotal), Dinheiro.formatar(getMedia()));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package interfaceGrafica;
+
+/**
+ * Modelo de tabela que lê cada linha da fonte pela posição, só quando a
+ * tabela precisa desenhá-la. Não copia os dados: com milhões de itens,
+ * apenas as linhas visíveis são consultadas.
+ *
+ * A quantidade de linhas exibida só muda na thread do Swing, por eventos
+ * de inserção incrementais; avisos vindos de outras threads são agrupados
+ * em uma única atualização.
+ */
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+public class ModeloTabelaVirtual<T> extends AbstractTableModel {
+    private String[] colunas;
+    private List<Function<T, Object>> valores;
+    private IntSupplier tamanho;
+    private IntFunction<T> obter;
+    private int linhas; // Só alterado na thread do Swing
+    private AtomicBoolean sincronizacaoPendente;
+
+    /**
+     * @param tamanho  quantidade atual de itens na fonte
+     * @param obter    item na posição
+     * @param colunas  nomes das colunas
+     * @param valores  uma função por coluna, que extrai o valor exibido do item
+     */
+    public ModeloTabelaVirtual(IntSupplier tamanho, IntFunction<T> obter, String[] colunas,
+            List<Function<T, Object>> valores) {
+        this.tamanho = tamanho;
+        this.obter = obter;
+        this.colunas = colunas;
+        this.valores = List.copyOf(valores);
+        this.sincronizacaoPendente = new AtomicBoolean();
+        this.linhas = tamanho.getAsInt();
+    }
+
+    /**
+     * Avisa que itens foram adicionados à fonte. Pode ser chamado de qualquer
+     * thread; várias chamadas seguidas geram um único evento.
+     */
+    public void notificarInsercao() {
+        if (sincronizacaoPendente.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::sincronizar);
+        }
+    }
+
+    /**
+     * Avisa que valores de linhas existentes mudaram (ex.: saldo). Só as
+     * linhas visíveis são redesenhadas.
+     */
+    public void notificarAlteracao() {
+        SwingUtilities.invokeLater(() -> {
+            if (linhas > 0) {
+                fireTableRowsUpdated(0, linhas - 1);
+            }
+        });
+    }
+
+    /**
+     * Igual a {@link #notificarAlteracao()}, para uma única linha.
+     */
+    public void notificarAlteracao(int linha) {
+        SwingUtilities.invokeLater(() -> {
+            if (linha < linhas) {
+                fireTableRowsUpdated(linha, linha);
+            }
+        });
+    }
+
+    private void sincronizar() {
+        sincronizacaoPendente.set(false);
+        int novoTamanho = tamanho.getAsInt();
+        int anterior = linhas;
+        linhas = novoTamanho;
+        if (novoTamanho > anterior) {
+            fireTableRowsInserted(anterior, novoTamanho - 1);
+        } else if (novoTamanho < anterior) {
+            fireTableDataChanged(); // Fonte foi esvaziada/recarregada
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return linhas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return colunas.length;
+    }
+
+    @Override
+    public String getColumnName(int coluna) {
+        return colunas[coluna];
+    }
+
+    @Override
+    public Object getValueAt(int linha, int coluna) {
+        if (linha >= tamanho.getAsInt()) {
+            return null; // Fonte encolheu; o evento de sincronização já está a caminho
+        }
+        return valores.get(coluna).apply(obter.apply(linha));
+    }
+}
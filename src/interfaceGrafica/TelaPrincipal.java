@@ -6,43 +6,161 @@ package interfaceGrafica;
  */
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import dominio.*;
 
 public class TelaPrincipal extends JFrame {
+    // Instantâneo das métricas acrescentado ao arquivo a cada minuto e ao fechar
+    private static final String ARQUIVO_METRICAS = "metricas.log";
+    private static final long INTERVALO_METRICAS_MS = 60000;
+    // Vendas abertas sem alteração por 30 minutos são canceladas (verificado a cada minuto)
+    private static final long TEMPO_VENDA_ABERTA_MS = 30 * 60000;
+    private static final long INTERVALO_EXPIRACAO_MS = 60000;
+    // Abas liberadas quando o repositório delas termina de carregar; as demais esperam o sistema pronto
+    private static final int ABA_CLIENTES = 0;
+    private static final int ABA_PRODUTOS = 1;
 
     private SistemaVendas sistema;
+    // Carregar/salvar/relatórios rodam fora da thread do Swing
+    private ServicoPersistencia servico;
+    private JTabbedPane tabbedPane;
+    private JLabel lblStatus;
+    private JProgressBar barraProgresso;
+    private ModeloTabelaVirtual<Cliente> modelClientes;
+    private Future<?> relatorioAtual;
 
     public TelaPrincipal() {
         sistema = new SistemaVendas();
-        sistema.carregarDados(); // Carrega os arquivos .txt ao abrir
+        servico = new ServicoPersistencia(sistema);
+        sistema.getMetricas().iniciarDespejo(ARQUIVO_METRICAS, INTERVALO_METRICAS_MS);
+        sistema.iniciarExpiracao(TEMPO_VENDA_ABERTA_MS, INTERVALO_EXPIRACAO_MS);
 
         setTitle("Sistema de Vendas com Monetização - Trabalho POO");
         setSize(800, 600);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        // Salvar dados ao fechar a janela
+        // Salvar dados ao fechar a janela (em segundo plano)
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                sistema.salvarDados();
-                JOptionPane.showMessageDialog(null, "Dados salvos com sucesso!");
+                salvarEFechar();
             }
         });
 
-        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane = new JTabbedPane();
         tabbedPane.add("Clientes", criarPainelClientes());
         tabbedPane.add("Produtos", criarPainelProdutos());
         tabbedPane.add("Vendas", criarPainelVendas());
         tabbedPane.add("Monetização", criarPainelMonetizacao());
         tabbedPane.add("Relatórios", criarPainelRelatorios());
 
-        add(tabbedPane);
+        // Barra de status com o andamento de carregar/salvar
+        JPanel statusPanel = new JPanel(new BorderLayout(5, 0));
+        lblStatus = new JLabel(" ");
+        barraProgresso = new JProgressBar(0, 100);
+        statusPanel.add(lblStatus, BorderLayout.CENTER);
+        statusPanel.add(barraProgresso, BorderLayout.EAST);
+
+        add(tabbedPane, BorderLayout.CENTER);
+        add(statusPanel, BorderLayout.SOUTH);
+
+        carregarDadosEmSegundoPlano(); // Carrega os arquivos .txt ao abrir
+    }
+
+    // --- CARREGAR / SALVAR EM SEGUNDO PLANO ---
+    private void carregarDadosEmSegundoPlano() {
+        // A janela aparece já; cada aba é liberada quando seus dados estiverem carregados
+        for (int i = 0; i < tabbedPane.getTabCount(); i++) {
+            tabbedPane.setEnabledAt(i, false);
+        }
+        liberarAbaQuando(sistema.getClientesCarregados(), ABA_CLIENTES);
+        liberarAbaQuando(sistema.getProdutosCarregados(), ABA_PRODUTOS);
+        for (int i = ABA_PRODUTOS + 1; i < tabbedPane.getTabCount(); i++) {
+            liberarAbaQuando(sistema.getPronto(), i);
+        }
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                servico.carregar(TelaPrincipal.this::mostrarProgresso).get();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    JOptionPane.showMessageDialog(TelaPrincipal.this, "Erro ao carregar dados: " + ex.getMessage());
+                }
+                barraProgresso.setVisible(false);
+            }
+        }.execute();
+    }
+
+    // Libera a aba quando o carregamento terminar (também com erro, como antes)
+    private void liberarAbaQuando(CompletableFuture<Void> carregado, int aba) {
+        carregado.whenComplete((ok, erro) -> SwingUtilities.invokeLater(() -> {
+            tabbedPane.setEnabledAt(aba, true);
+            if (!tabbedPane.isEnabledAt(tabbedPane.getSelectedIndex())) {
+                tabbedPane.setSelectedIndex(aba);
+            }
+        }));
+    }
+
+    // Cadastros só depois do diário reproduzido (ele pode repetir os mesmos registros)
+    private void liberarQuandoPronto(JButton botao) {
+        botao.setEnabled(false);
+        sistema.getPronto().whenComplete((ok, erro) -> SwingUtilities.invokeLater(() -> botao.setEnabled(true)));
+    }
+
+    private void salvarEFechar() {
+        setEnabled(false);
+        barraProgresso.setVisible(true);
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() throws Exception {
+                sistema.pararExpiracao();
+                boolean salvos = servico.encerrar(TelaPrincipal.this::mostrarProgresso).get();
+                sistema.getMetricas().pararDespejo();
+                sistema.getMetricas().gravar(ARQUIVO_METRICAS);
+                return salvos;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    if (get()) {
+                        JOptionPane.showMessageDialog(null, "Dados salvos com sucesso!");
+                    } else {
+                        JOptionPane.showMessageDialog(null,
+                                "Erro ao salvar dados: nem todos os arquivos foram gravados (veja o console).");
+                    }
+                } catch (InterruptedException | ExecutionException ex) {
+                    JOptionPane.showMessageDialog(null, "Erro ao salvar dados: " + ex.getMessage());
+                }
+                dispose();
+                System.exit(0);
+            }
+        }.execute();
+    }
+
+    // Chamado pela thread de persistência
+    private void mostrarProgresso(String etapa, int percentual) {
+        SwingUtilities.invokeLater(() -> {
+            lblStatus.setText(etapa);
+            barraProgresso.setValue(percentual);
+        });
     }
 
     // --- PAINEL DE CLIENTES ---
@@ -82,21 +200,27 @@ public class TelaPrincipal extends JFrame {
         });
 
         JButton btnSalvar = new JButton("Cadastrar Cliente");
+        liberarQuandoPronto(btnSalvar);
         formPanel.add(new JLabel("")); // Espaço vazio
         formPanel.add(btnSalvar);
 
-        // Tabela de Listagem
+        // Tabela de Listagem (lê os clientes por posição, só as linhas visíveis)
         String[] colunas = { "ID/Doc", "Nome", "Email", "Tipo", "Saldo" };
-        DefaultTableModel model = new DefaultTableModel(colunas, 0);
+        ModeloTabelaVirtual<Cliente> model = new ModeloTabelaVirtual<>(
+                sistema::quantidadeClientes, sistema::clienteNaPosicao, colunas,
+                List.of(Cliente::getIdentificador, Cliente::getNome, Cliente::getEmail,
+                        c -> (c instanceof ClientePF) ? "PF" : "PJ",
+                        c -> Dinheiro.formatar(c.getConta().getSaldoCentavos())));
         JTable table = new JTable(model);
-        atualizarTabelaClientes(model); // Método auxiliar para preencher tabela
+        sistema.observarClientes((cliente, posicao) -> model.notificarInsercao());
+        modelClientes = model;
 
         btnSalvar.addActionListener(e -> {
             try {
                 String nome = txtNome.getText();
                 String email = txtEmail.getText();
                 String doc = txtDocumento.getText();
-                Conta conta = new Conta(sistema.listarClientes().size() + 1); // Gera numero conta simples
+                Conta conta = new Conta(sistema.quantidadeClientes() + 1); // Gera numero conta simples
 
                 Cliente novoCliente;
                 if (cbTipo.getSelectedItem().equals("Pessoa Física")) {
@@ -107,8 +231,8 @@ public class TelaPrincipal extends JFrame {
                 }
 
                 if (sistema.cadastrarCliente(novoCliente)) {
+                    servico.marcarAlterado();
                     JOptionPane.showMessageDialog(this, "Cliente cadastrado com sucesso!");
-                    atualizarTabelaClientes(model);
                     // Limpar campos
                     txtNome.setText("");
                     txtEmail.setText("");
@@ -150,25 +274,30 @@ public class TelaPrincipal extends JFrame {
         formPanel.add(cbTipo);
 
         JButton btnSalvar = new JButton("Cadastrar Produto");
+        liberarQuandoPronto(btnSalvar);
         formPanel.add(new JLabel(""));
         formPanel.add(btnSalvar);
 
         String[] colunas = { "Código", "Nome", "Preço", "Tipo" };
-        DefaultTableModel model = new DefaultTableModel(colunas, 0);
+        ModeloTabelaVirtual<Produto> model = new ModeloTabelaVirtual<>(
+                sistema::quantidadeProdutos, sistema::produtoNaPosicao, colunas,
+                List.of(Produto::getCodigo, Produto::getNome,
+                        p -> Dinheiro.formatar(p.getPrecoCentavos()),
+                        Produto::getTipo));
         JTable table = new JTable(model);
-        atualizarTabelaProdutos(model);
+        sistema.observarProdutos((produto, posicao) -> model.notificarInsercao());
 
         btnSalvar.addActionListener(e -> {
             try {
                 int codigo = Integer.parseInt(txtCodigo.getText());
                 String nome = txtNome.getText();
-                double preco = Double.parseDouble(txtPreco.getText().replace(",", "."));
+                long preco = Dinheiro.parse(txtPreco.getText());
                 TipoProduto tipo = (TipoProduto) cbTipo.getSelectedItem();
 
                 Produto p = new Produto(codigo, nome, preco, tipo);
                 if (sistema.cadastrarProduto(p)) {
+                    servico.marcarAlterado();
                     JOptionPane.showMessageDialog(this, "Produto cadastrado!");
-                    atualizarTabelaProdutos(model);
                     txtCodigo.setText("");
                     txtNome.setText("");
                     txtPreco.setText("");
@@ -202,19 +331,39 @@ public class TelaPrincipal extends JFrame {
         JPanel itemPanel = new JPanel(new FlowLayout());
         JTextField txtCodProduto = new JTextField(10);
         JTextField txtQtd = new JTextField(5);
+
+        // Autocompletar: digitar parte do nome sugere clientes/produtos (índices por prefixo)
+        instalarAutocompletar(txtIdCliente,
+                texto -> somenteDigitos(texto) ? List.<Cliente>of() : sistema.buscarClientesPorNome(texto, 10),
+                c -> c.getNome() + " (" + c.getIdentificador() + ")",
+                Cliente::getIdentificador);
+        instalarAutocompletar(txtCodProduto,
+                texto -> somenteDigitos(texto) ? List.<Produto>of() : sistema.buscarProdutosPorNome(texto, 10),
+                p -> p.getCodigo() + " - " + p.getNome() + " (R$ " + Dinheiro.formatar(p.getPrecoCentavos()) + ")",
+                p -> String.valueOf(p.getCodigo()));
         JButton btnAdicionar = new JButton("Adicionar Item");
+        JButton btnRemover = new JButton("Remover Item");
+        JButton btnCancelar = new JButton("Cancelar Venda");
 
         itemPanel.add(new JLabel("Cód. Produto:"));
         itemPanel.add(txtCodProduto);
         itemPanel.add(new JLabel("Qtd:"));
         itemPanel.add(txtQtd);
         itemPanel.add(btnAdicionar);
+        itemPanel.add(btnRemover);
+        itemPanel.add(btnCancelar);
 
         // Estado da venda atual
         final Venda[] vendaAtual = { null };
 
         String[] colunas = { "Produto", "Preço Unit.", "Qtd", "Subtotal" };
-        DefaultTableModel modelItens = new DefaultTableModel(colunas, 0);
+        ModeloTabelaVirtual<ItemVenda> modelItens = new ModeloTabelaVirtual<>(
+                () -> vendaAtual[0] == null ? 0 : vendaAtual[0].quantidadeItens(),
+                i -> vendaAtual[0].getItem(i), colunas,
+                List.of(item -> item.getProduto().getNome(),
+                        item -> Dinheiro.formatar(item.getPrecoUnitario()),
+                        ItemVenda::getQuantidade,
+                        item -> Dinheiro.formatar(item.calcularSubtotal())));
         JTable tableItens = new JTable(modelItens);
         JLabel lblTotal = new JLabel("Total da Venda: R$ 0.00");
         lblTotal.setFont(new Font("Arial", Font.BOLD, 16));
@@ -238,7 +387,7 @@ public class TelaPrincipal extends JFrame {
                 JOptionPane.showMessageDialog(this, "Venda iniciada para: " + vendaAtual[0].getCliente().getNome());
                 itemPanel.setVisible(true);
                 btnFinalizar.setEnabled(true);
-                modelItens.setRowCount(0); // Limpa tabela visual
+                modelItens.notificarInsercao(); // Troca para os itens da nova venda
                 lblTotal.setText("Total da Venda: R$ 0.00");
             } else {
                 JOptionPane.showMessageDialog(this, "Cliente não encontrado!");
@@ -257,7 +406,9 @@ public class TelaPrincipal extends JFrame {
                 boolean sucesso = sistema.adicionarItemAVenda(vendaAtual[0].getCodigo(), codProd, qtd);
 
                 if (sucesso) {
-                    atualizarTabelaItens(modelItens, vendaAtual[0], lblTotal);
+                    modelItens.notificarInsercao();
+                    modelItens.notificarAlteracao(); // Produto repetido soma na linha existente
+                    lblTotal.setText("Total da Venda: R$ " + Dinheiro.formatar(vendaAtual[0].calcularTotal()));
                 } else {
                     JOptionPane.showMessageDialog(this, "Erro ao adicionar item (Verifique produto/estoque)");
                 }
@@ -266,22 +417,52 @@ public class TelaPrincipal extends JFrame {
             }
         });
 
+        btnRemover.addActionListener(e -> {
+            int linha = tableItens.getSelectedRow();
+            if (vendaAtual[0] == null || linha < 0) {
+                JOptionPane.showMessageDialog(this, "Selecione um item na tabela.");
+                return;
+            }
+            int codProd = vendaAtual[0].getItem(linha).getProduto().getCodigo();
+            if (sistema.removerItemDaVenda(vendaAtual[0].getCodigo(), codProd)) {
+                modelItens.notificarInsercao(); // Tamanho diminuiu: recarrega a tabela
+                lblTotal.setText("Total da Venda: R$ " + Dinheiro.formatar(vendaAtual[0].calcularTotal()));
+            } else {
+                JOptionPane.showMessageDialog(this, "Erro ao remover item.");
+            }
+        });
+
+        // Resetar tela
+        Runnable limparVenda = () -> {
+            vendaAtual[0] = null;
+            modelItens.notificarInsercao();
+            itemPanel.setVisible(false);
+            btnFinalizar.setEnabled(false);
+            lblTotal.setText("Total da Venda: R$ 0.00");
+            txtIdCliente.setText("");
+        };
+
+        btnCancelar.addActionListener(e -> {
+            if (vendaAtual[0] == null)
+                return;
+            // Se já expirou por inatividade, a venda não existe mais: só limpa a tela
+            sistema.cancelarVenda(vendaAtual[0].getCodigo());
+            limparVenda.run();
+        });
+
         btnFinalizar.addActionListener(e -> {
             if (vendaAtual[0] == null)
                 return;
             try {
                 boolean sucesso = sistema.finalizarVenda(vendaAtual[0].getCodigo());
                 if (sucesso) {
+                    servico.marcarAlterado();
+                    modelClientes.notificarAlteracao(); // Saldo mudou
                     JOptionPane.showMessageDialog(this, "Venda Finalizada! Saldo debitado.");
-                    // Resetar tela
-                    vendaAtual[0] = null;
-                    modelItens.setRowCount(0);
-                    itemPanel.setVisible(false);
-                    btnFinalizar.setEnabled(false);
-                    lblTotal.setText("Total da Venda: R$ 0.00");
-                    txtIdCliente.setText("");
+                    limparVenda.run();
                 } else {
-                    JOptionPane.showMessageDialog(this, "Erro ao finalizar (Venda já finalizada ou erro interno).");
+                    JOptionPane.showMessageDialog(this,
+                            "Erro ao finalizar (Venda já finalizada, cancelada por inatividade ou erro interno).");
                 }
             } catch (SaldoInsuficienteException ex) {
                 JOptionPane.showMessageDialog(this, "ERRO: Saldo Insuficiente na conta do cliente!");
@@ -295,6 +476,65 @@ public class TelaPrincipal extends JFrame {
         return panel;
     }
 
+    /**
+     * Mostra sugestões abaixo do campo enquanto o usuário digita; escolher
+     * uma troca o texto do campo pelo valor da sugestão.
+     */
+    private <T> void instalarAutocompletar(JTextField campo, Function<String, List<T>> buscar,
+            Function<T, String> descricao, Function<T, String> valor) {
+        JPopupMenu sugestoes = new JPopupMenu();
+        sugestoes.setFocusable(false); // O foco continua no campo
+        boolean[] preenchendo = { false };
+
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                atualizar();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                atualizar();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+
+            private void atualizar() {
+                if (preenchendo[0])
+                    return;
+                // O documento não pode ser consultado durante a notificação
+                SwingUtilities.invokeLater(() -> {
+                    sugestoes.setVisible(false);
+                    sugestoes.removeAll();
+                    String texto = campo.getText().trim();
+                    if (texto.isEmpty() || !campo.isShowing())
+                        return;
+                    for (T item : buscar.apply(texto)) {
+                        JMenuItem opcao = new JMenuItem(descricao.apply(item));
+                        opcao.addActionListener(ev -> {
+                            preenchendo[0] = true;
+                            campo.setText(valor.apply(item));
+                            preenchendo[0] = false;
+                        });
+                        sugestoes.add(opcao);
+                    }
+                    if (sugestoes.getComponentCount() > 0)
+                        sugestoes.show(campo, 0, campo.getHeight());
+                });
+            }
+        });
+    }
+
+    private static boolean somenteDigitos(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (!Character.isDigit(texto.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
     // --- PAINEL DE MONETIZAÇÃO ---
     private JPanel criarPainelMonetizacao() {
         JPanel panel = new JPanel(new GridBagLayout());
@@ -329,13 +569,16 @@ public class TelaPrincipal extends JFrame {
         btnDepositar.addActionListener(e -> {
             try {
                 String id = txtIdCliente.getText();
-                double valor = Double.parseDouble(txtValor.getText().replace(",", "."));
+                long valor = Dinheiro.parse(txtValor.getText());
                 Cliente c = sistema.buscarClientePorIdentificador(id);
 
                 if (c != null) {
-                    c.getConta().depositar(valor);
+                    sistema.depositar(id, valor);
+                    servico.marcarAlterado();
+                    modelClientes.notificarAlteracao();
                     JOptionPane.showMessageDialog(this,
-                            "Depósito realizado! Novo saldo: R$ " + c.getConta().getSaldo());
+                            "Depósito realizado! Novo saldo: R$ "
+                                    + Dinheiro.formatar(c.getConta().getSaldoCentavos()));
                 } else {
                     JOptionPane.showMessageDialog(this, "Cliente não encontrado.");
                 }
@@ -349,7 +592,8 @@ public class TelaPrincipal extends JFrame {
             Cliente c = sistema.buscarClientePorIdentificador(id);
             if (c != null) {
                 JOptionPane.showMessageDialog(this,
-                        "Cliente: " + c.getNome() + "\nSaldo: R$ " + c.getConta().getSaldo());
+                        "Cliente: " + c.getNome() + "\nSaldo: R$ "
+                                + Dinheiro.formatar(c.getConta().getSaldoCentavos()));
             } else {
                 JOptionPane.showMessageDialog(this, "Cliente não encontrado.");
             }
@@ -358,46 +602,6 @@ public class TelaPrincipal extends JFrame {
         return panel;
     }
 
-    // --- MÉTODOS AUXILIARES ---
-    private void atualizarTabelaClientes(DefaultTableModel model) {
-        model.setRowCount(0); // Limpa
-        // Requer que você adicione listarClientes() no SistemaVendas
-        try {
-            for (Cliente c : sistema.listarClientes()) {
-                String tipo = (c instanceof ClientePF) ? "PF" : "PJ";
-                model.addRow(new Object[] { c.getIdentificador(), c.getNome(), c.getEmail(), tipo,
-                        c.getConta().getSaldo() });
-            }
-        } catch (Exception e) {
-            // Caso o método não exista ainda, evita quebrar a tela
-            System.err.println("Método listarClientes não implementado no backend ainda.");
-        }
-    }
-
-    private void atualizarTabelaProdutos(DefaultTableModel model) {
-        model.setRowCount(0);
-        try {
-            for (Produto p : sistema.listarProdutos()) {
-                model.addRow(new Object[] { p.getCodigo(), p.getNome(), p.getPreco(), p.getTipo() });
-            }
-        } catch (Exception e) {
-            System.err.println("Método listarProdutos não implementado no backend ainda.");
-        }
-    }
-
-    private void atualizarTabelaItens(DefaultTableModel model, Venda venda, JLabel lblTotal) {
-        model.setRowCount(0);
-        for (ItemVenda item : venda.getItens()) {
-            model.addRow(new Object[] {
-                    item.getProduto().getNome(),
-                    item.getProduto().getPreco(),
-                    item.getQuantidade(),
-                    item.calcularSubtotal()
-            });
-        }
-        lblTotal.setText("Total da Venda: R$ " + String.format("%.2f", venda.calcularTotal()));
-    }
-
     // --- PAINEL DE RELATÓRIOS ---
     private JPanel criarPainelRelatorios() {
         JPanel panel = new JPanel(new BorderLayout());
@@ -408,11 +612,13 @@ public class TelaPrincipal extends JFrame {
         JButton btnRelProdutos = new JButton("Produtos Vendidos");
         JButton btnRelClientes = new JButton("Clientes - Top Compras");
         JButton btnRelMovimentacao = new JButton("Movimentação de Contas");
+        JButton btnRelReceita = new JButton("Receita por Período");
         JButton btnRelResumo = new JButton("Resumo Geral");
 
         btnPanel.add(btnRelProdutos);
         btnPanel.add(btnRelClientes);
         btnPanel.add(btnRelMovimentacao);
+        btnPanel.add(btnRelReceita);
         btnPanel.add(btnRelResumo);
 
         // Área de texto para exibir relatórios
@@ -425,8 +631,7 @@ public class TelaPrincipal extends JFrame {
         JScrollPane scrollPane = new JScrollPane(textArea);
 
         // Ação: Relatório de Produtos Vendidos
-        btnRelProdutos.addActionListener(e -> {
-            RelatorioVendas relatorio = sistema.gerarRelatorio();
+        btnRelProdutos.addActionListener(e -> exibirRelatorio(textArea, relatorio -> {
             var produtosVendidos = relatorio.relatorioProdurosVendidos();
 
             StringBuilder sb = new StringBuilder();
@@ -435,15 +640,16 @@ public class TelaPrincipal extends JFrame {
                 sb.append("Nenhum produto foi vendido ainda.\n");
             } else {
                 for (var entry : produtosVendidos.entrySet()) {
+                    if (Thread.currentThread().isInterrupted())
+                        break; // Relatório cancelado por outro clique
                     sb.append(entry.getValue()).append("\n");
                 }
             }
-            textArea.setText(sb.toString());
-        });
+            return sb.toString();
+        }));
 
         // Ação: Relatório de Clientes - Top Compras
-        btnRelClientes.addActionListener(e -> {
-            RelatorioVendas relatorio = sistema.gerarRelatorio();
+        btnRelClientes.addActionListener(e -> exibirRelatorio(textArea, relatorio -> {
             var clientesTop = relatorio.relatorioClientesMaisCompram();
 
             StringBuilder sb = new StringBuilder();
@@ -453,15 +659,16 @@ public class TelaPrincipal extends JFrame {
             } else {
                 int rank = 1;
                 for (var cliente : clientesTop) {
+                    if (Thread.currentThread().isInterrupted())
+                        break;
                     sb.append(String.format("%dº lugar: %s\n", rank++, cliente)).append("\n");
                 }
             }
-            textArea.setText(sb.toString());
-        });
+            return sb.toString();
+        }));
 
         // Ação: Relatório de Movimentação de Contas
-        btnRelMovimentacao.addActionListener(e -> {
-            RelatorioVendas relatorio = sistema.gerarRelatorio();
+        btnRelMovimentacao.addActionListener(e -> exibirRelatorio(textArea, relatorio -> {
             var clientesMovimentacao = relatorio.relatorioClientesMovimentacao();
 
             StringBuilder sb = new StringBuilder();
@@ -471,18 +678,32 @@ public class TelaPrincipal extends JFrame {
             } else {
                 int rank = 1;
                 for (var cliente : clientesMovimentacao) {
+                    if (Thread.currentThread().isInterrupted())
+                        break;
                     sb.append(String.format("%dº lugar: %s\n", rank++, cliente)).append("\n");
                 }
             }
-            textArea.setText(sb.toString());
-        });
+            return sb.toString();
+        }));
+
+        // Ação: Receita dos últimos 12 meses e de cada dia do mês atual
+        btnRelReceita.addActionListener(e -> exibirRelatorio(textArea, relatorio -> {
+            LocalDate hoje = LocalDate.now();
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== RECEITA MENSAL (ÚLTIMOS 12 MESES) ===\n\n");
+            for (var mes : relatorio.relatorioReceitaMensal(hoje.minusMonths(11).withDayOfMonth(1), hoje)) {
+                sb.append(mes).append("\n");
+            }
+            sb.append("\n=== RECEITA DIÁRIA (MÊS ATUAL) ===\n\n");
+            for (var dia : relatorio.relatorioReceitaDiaria(hoje.withDayOfMonth(1), hoje)) {
+                sb.append(dia).append("\n");
+            }
+            return sb.toString();
+        }));
 
         // Ação: Resumo Geral
-        btnRelResumo.addActionListener(e -> {
-            RelatorioVendas relatorio = sistema.gerarRelatorio();
-            var resumo = relatorio.gerarResumo();
-            textArea.setText(resumo.toString());
-        });
+        btnRelResumo.addActionListener(e -> exibirRelatorio(textArea,
+                relatorio -> relatorio.gerarResumo().toString()));
 
         panel.add(btnPanel, BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -490,6 +711,24 @@ public class TelaPrincipal extends JFrame {
         return panel;
     }
 
+    /**
+     * Monta o texto do relatório em segundo plano, cancelando o anterior
+     * se ainda estiver em andamento.
+     */
+    private void exibirRelatorio(JTextArea textArea, Function<RelatorioVendas, String> montarTexto) {
+        if (relatorioAtual != null) {
+            relatorioAtual.cancel(true);
+        }
+        textArea.setText("Gerando relatório...");
+        relatorioAtual = servico.gerarRelatorio(relatorio -> {
+            String texto = montarTexto.apply(relatorio);
+            if (!Thread.currentThread().isInterrupted()) {
+                SwingUtilities.invokeLater(() -> textArea.setText(texto));
+            }
+            return texto;
+        });
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             new TelaPrincipal().setVisible(true);